@@ -42,7 +42,6 @@ import net.imagej.overlay.OverlaySettings;
 import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.Figure;
-import org.jhotdraw.draw.decoration.ArrowTip;
 import org.scijava.display.Display;
 import org.scijava.plugin.AbstractRichPlugin;
 import org.scijava.plugin.Parameter;
@@ -101,7 +100,8 @@ public abstract class AbstractJHotDrawAdapter<O extends Overlay, F extends Figur
 		final Overlay overlay = view.getData();
 		final ColorRGB lineColor = overlay.getLineColor();
 		if (overlay.getLineStyle() != Overlay.LineStyle.NONE) {
-			set(figure, AttributeKeys.STROKE_COLOR, AWTColors.getColor(lineColor));
+			set(figure, AttributeKeys.STROKE_COLOR, FigureAttributes
+				.getColor(lineColor));
 
 			// FIXME - is this next line dangerous for drawing attributes? width could
 			// conceivably need to always stay 0.
@@ -128,21 +128,24 @@ public abstract class AbstractJHotDrawAdapter<O extends Overlay, F extends Figur
 		}
 		else {
 			// Render a "NONE" line style as alpha = transparent.
-			set(figure, AttributeKeys.STROKE_COLOR, new Color(0, 0, 0, 0));
+			set(figure, AttributeKeys.STROKE_COLOR, FigureAttributes.TRANSPARENT);
 		}
 		final ColorRGB fillColor = overlay.getFillColor();
 		final int alpha = overlay.getAlpha();
-		set(figure, AttributeKeys.FILL_COLOR, AWTColors.getColor(fillColor, alpha));
+		set(figure, AttributeKeys.FILL_COLOR, FigureAttributes.getColor(fillColor,
+			alpha));
 		switch (overlay.getLineStartArrowStyle()) {
 			case ARROW:
-				set(figure, AttributeKeys.START_DECORATION, new ArrowTip());
+				set(figure, AttributeKeys.START_DECORATION,
+					FigureAttributes.ARROW_TIP);
 				break;
 			case NONE:
 				set(figure, AttributeKeys.START_DECORATION, null);
 		}
 		switch (overlay.getLineEndArrowStyle()) {
 			case ARROW:
-				set(figure, AttributeKeys.END_DECORATION, new ArrowTip());
+				set(figure, AttributeKeys.END_DECORATION,
+					FigureAttributes.ARROW_TIP);
 				break;
 			case NONE:
 				set(figure, AttributeKeys.END_DECORATION, null);
@@ -200,20 +203,12 @@ public abstract class AbstractJHotDrawAdapter<O extends Overlay, F extends Figur
 	}
 
 	private Color getDefaultStrokeColor(final OverlaySettings settings) {
-		final ColorRGB color = settings.getLineColor();
-		final int r = color.getRed();
-		final int g = color.getGreen();
-		final int b = color.getBlue();
-		return new Color(r, g, b, 255);
+		return FigureAttributes.getColor(settings.getLineColor(), 255);
 	}
 
 	private Color getDefaultFillColor(final OverlaySettings settings) {
-		final ColorRGB color = settings.getFillColor();
-		final int r = color.getRed();
-		final int g = color.getGreen();
-		final int b = color.getBlue();
-		final int a = settings.getAlpha();
-		return new Color(r, g, b, a);
+		return FigureAttributes.getColor(settings.getFillColor(), settings
+			.getAlpha());
 	}
 
 	/**
@@ -230,7 +225,10 @@ public abstract class AbstractJHotDrawAdapter<O extends Overlay, F extends Figur
 	}
 
 	private <T> void set(final F fig, final AttributeKey<T> key, final T value) {
-		if (MiscUtils.equal(value, fig.get(key))) {
+		final T current = fig.get(key);
+		// NB: Shared attribute values usually match by identity, without a deeper
+		// comparison; see FigureAttributes.
+		if (value == current || MiscUtils.equal(value, current)) {
 			// NB: Do not trigger an attribute change event if value already matches.
 			return;
 		}
@@ -29,7 +29,6 @@
 
 package net.imagej.ui.swing.overlay;
 
-import java.awt.Color;
 import java.awt.Shape;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
@@ -101,7 +100,9 @@ public class DefaultJHotDrawAdapter extends
 		super.updateFigure(overlay, figure);
 
 		// Override the base: set the fill color to transparent.
-		figure.set(AttributeKeys.FILL_COLOR, new Color(0, 0, 0, 0));
+		if (figure.get(AttributeKeys.FILL_COLOR) != FigureAttributes.TRANSPARENT) {
+			figure.set(AttributeKeys.FILL_COLOR, FigureAttributes.TRANSPARENT);
+		}
 		final RegionOfInterest roi = overlay.getData().getRegionOfInterest();
 		if (roi != null) {
 			final long minX = (long) Math.floor(roi.realMin(0));
@@ -0,0 +1,105 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ui.swing.overlay;
+
+import java.awt.Color;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jhotdraw.draw.decoration.ArrowTip;
+import org.scijava.util.ColorRGB;
+
+/**
+ * Shared, immutable attribute values for JHotDraw figures.
+ * <p>
+ * Handing out the same instance for equal values lets
+ * {@link AbstractJHotDrawAdapter#updateFigure} recognize unchanged attributes
+ * by identity, without allocating and without firing attribute change events.
+ * </p>
+ */
+public final class FigureAttributes {
+
+	/**
+	 * Maximum number of interned colors. Overlays normally use a handful of
+	 * colors, but alpha and color ramps could otherwise grow the table without
+	 * limit. Colors beyond this are handed out unshared, which is still correct
+	 * since attribute values are also compared by equality.
+	 */
+	static final int MAX_COLORS = 4096;
+
+	/** Interned colors, keyed by packed ARGB value. */
+	// NB: Must be initialized before any constant which calls getColor.
+	private static final ConcurrentMap<Integer, Color> COLORS =
+		new ConcurrentHashMap<>();
+
+	/** Arrow decoration shared by all figures. */
+	public static final ArrowTip ARROW_TIP = new ArrowTip();
+
+	/** Fully transparent color. */
+	public static final Color TRANSPARENT = getColor(0, 0, 0, 0);
+
+	private FigureAttributes() {
+		// prevent instantiation of utility class
+	}
+
+	// -- Utility methods --
+
+	/** Gets the shared color with the given components. */
+	public static Color getColor(final int r, final int g, final int b,
+		final int a)
+	{
+		final int argb =
+			(a & 0xff) << 24 | (r & 0xff) << 16 | (g & 0xff) << 8 | (b & 0xff);
+		final Integer key = argb;
+		final Color color = COLORS.get(key);
+		if (color != null) return color;
+		final Color newColor = new Color(argb, true);
+		if (COLORS.size() >= MAX_COLORS) return newColor;
+		final Color oldColor = COLORS.putIfAbsent(key, newColor);
+		return oldColor == null ? newColor : oldColor;
+	}
+
+	/** Gets the shared color matching the given one, or null if null. */
+	public static Color getColor(final ColorRGB color) {
+		if (color == null) return null;
+		return getColor(color.getRed(), color.getGreen(), color.getBlue(), color
+			.getAlpha());
+	}
+
+	/**
+	 * Gets the shared color matching the given one, with the given alpha, or
+	 * null if null.
+	 */
+	public static Color getColor(final ColorRGB color, final int alpha) {
+		if (color == null) return null;
+		return getColor(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+	}
+
+}
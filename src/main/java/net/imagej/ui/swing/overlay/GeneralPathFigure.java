@@ -39,6 +39,8 @@ import java.awt.geom.Point2D.Double;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +67,21 @@ public class GeneralPathFigure extends AbstractAttributedFigure {
 	private List<BezierFigure> figures;
 	private transient GeneralPath path;
 
+	/** Cached union of the children's bounds, or null if out of date. */
+	private transient Rectangle2D.Double bounds;
+
+	/** Cached bounds of each child, dropped when that child changes. */
+	private transient Map<BezierFigure, Rectangle2D.Double> childBounds;
+
+	/** Incremented whenever the geometry of the figure changes. */
+	private transient long geometryVersion;
+
+	/** Geometry version at which the whole path last changed. */
+	private transient long pathVersion;
+
+	/** Geometry version at which each child last changed on its own. */
+	private transient Map<BezierFigure, Long> childVersions;
+
 	public GeneralPathFigure(final BezierFigure... list) {
 		figures = new ArrayList<BezierFigure>() {
 			@Override
@@ -73,25 +90,26 @@ public class GeneralPathFigure extends AbstractAttributedFigure {
 				figure.addFigureListener(new FigureListener() {
 					@Override
 					public void areaInvalidated(FigureEvent e) {
-						invalidate();
+						invalidate(figure);
 						fireAreaInvalidated();
 					}
 
 					@Override
 					public void attributeChanged(FigureEvent e) {
-						invalidate();
+						// NB: Attributes do not affect the cached geometry.
+						GeneralPathFigure.super.invalidate();
 						fireAttributeChanged(e.getAttribute(), e.getOldValue(), e.getNewValue());
 					}
 
 					@Override
 					public void figureHandlesChanged(FigureEvent e) {
-						invalidate();
+						invalidate(figure);
 						fireFigureHandlesChanged();
 					}
 
 					@Override
 					public void figureChanged(FigureEvent e) {
-						invalidate();
+						invalidate(figure);
 						fireFigureChanged();
 					}
 
@@ -140,12 +158,15 @@ public class GeneralPathFigure extends AbstractAttributedFigure {
 	}
 
 	@Override
-	public Rectangle2D.Double getBounds() {
-		Rectangle2D.Double result = new Rectangle2D.Double();
-		for (final BezierFigure figure : figures) {
-			Rectangle2D.union(result, figure.getBounds(), result);
+	public synchronized Rectangle2D.Double getBounds() {
+		if (bounds == null) {
+			final Rectangle2D.Double result = new Rectangle2D.Double();
+			for (final BezierFigure figure : figures) {
+				Rectangle2D.union(result, getChildBounds(figure), result);
+			}
+			bounds = result;
 		}
-		return result;
+		return (Rectangle2D.Double) bounds.clone();
 	}
 
 	@Override
@@ -161,6 +182,7 @@ public class GeneralPathFigure extends AbstractAttributedFigure {
 	@Override
 	public void restoreTransformTo(Object geometry) {
 		figures = (List<BezierFigure>) geometry;
+		invalidateGeometry();
 	}
 
 	@Override
@@ -168,7 +190,7 @@ public class GeneralPathFigure extends AbstractAttributedFigure {
 		for (final BezierFigure figure : figures) {
 			figure.getBezierPath().transform(tx);
 		}
-		invalidate();
+		invalidateGeometry();
 	}
 
 	@Override
@@ -197,10 +219,21 @@ public class GeneralPathFigure extends AbstractAttributedFigure {
 
 	@Override
 	public synchronized void invalidate() {
-		path = null;
+		// NB: Called by changed(), also for edits of attributes only. The cached
+		// geometry is dropped by the methods which actually change it.
 		super.invalidate();
 	}
 
+	@Override
+	public GeneralPathFigure clone() {
+		final GeneralPathFigure that = (GeneralPathFigure) super.clone();
+		that.path = null;
+		that.bounds = null;
+		that.childBounds = null;
+		that.childVersions = null;
+		return that;
+	}
+
 	@SuppressWarnings("rawtypes")
 	@Override
 	public void setAttributeEnabled(AttributeKey key, boolean b) {
@@ -244,6 +277,7 @@ public class GeneralPathFigure extends AbstractAttributedFigure {
 
 	@SuppressWarnings("null")
 	public synchronized void setGeneralPath(final GeneralPath path) {
+		invalidateGeometry();
 		this.path = path;
 		figures.clear();
 		BezierPath bezierPath = null;
@@ -285,8 +319,64 @@ public class GeneralPathFigure extends AbstractAttributedFigure {
 		return path;
 	}
 
+	/**
+	 * Gets a counter which changes whenever the geometry of the figure changes,
+	 * so that callers can tell whether the path needs to be read again.
+	 */
+	public synchronized long getGeometryVersion() {
+		return geometryVersion;
+	}
+
+	/**
+	 * Gets the child figures, in the order their subpaths make up the
+	 * {@link #getGeneralPath() path}.
+	 */
+	public synchronized List<BezierFigure> getChildren() {
+		return Collections.unmodifiableList(new ArrayList<>(figures));
+	}
+
+	/**
+	 * Gets the geometry version at which the given child last changed, either
+	 * on its own or together with the whole path.
+	 */
+	public synchronized long getGeometryVersion(final BezierFigure figure) {
+		final Long version =
+			childVersions == null ? null : childVersions.get(figure);
+		return version == null ? pathVersion : version;
+	}
+
 	/* -- helper methods -- */
 
+	/** Invalidates the cached geometry after a change of the whole path. */
+	private synchronized void invalidateGeometry() {
+		path = null;
+		bounds = null;
+		if (childBounds != null) childBounds.clear();
+		if (childVersions != null) childVersions.clear();
+		pathVersion = ++geometryVersion;
+		super.invalidate();
+	}
+
+	/** Invalidates the cached geometry after a change of a single child. */
+	private synchronized void invalidate(final BezierFigure figure) {
+		path = null;
+		bounds = null;
+		if (childBounds != null) childBounds.remove(figure);
+		if (childVersions == null) childVersions = new IdentityHashMap<>();
+		childVersions.put(figure, ++geometryVersion);
+		super.invalidate();
+	}
+
+	private Rectangle2D.Double getChildBounds(final BezierFigure figure) {
+		if (childBounds == null) childBounds = new IdentityHashMap<>();
+		Rectangle2D.Double result = childBounds.get(figure);
+		if (result == null) {
+			result = figure.getBounds();
+			childBounds.put(figure, result);
+		}
+		return result;
+	}
+
 	private boolean add(final BezierPath bezierPath, boolean isClosed) {
 		bezierPath.setClosed(isClosed);
 		BezierFigure figure = new BezierFigure(isClosed);
@@ -30,6 +30,10 @@
 package net.imagej.ui.swing.overlay;
 
 import java.awt.Shape;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import net.imagej.display.ImageDisplay;
 import net.imagej.display.OverlayView;
@@ -39,6 +43,7 @@ import net.imagej.ui.swing.tools.SwingPolygonTool;
 import net.imglib2.roi.GeneralPathRegionOfInterest;
 
 import org.jhotdraw.draw.AttributeKeys;
+import org.jhotdraw.draw.BezierFigure;
 import org.jhotdraw.draw.Figure;
 import org.scijava.plugin.Plugin;
 import org.scijava.tool.Tool;
@@ -55,6 +60,10 @@ public class GeneralPathJHotDrawAdapter extends
 
 	public static final double PRIORITY = SwingPolygonTool.PRIORITY + 0.5;
 
+	/** Geometry of each figure when it last matched its region. */
+	private final Map<GeneralPathFigure, Synced> synced = Collections
+		.synchronizedMap(new WeakHashMap<GeneralPathFigure, Synced>());
+
 	private static GeneralPathOverlay downcastOverlay(final Overlay overlay) {
 		assert overlay instanceof GeneralPathOverlay;
 		return (GeneralPathOverlay) overlay;
@@ -95,9 +104,23 @@ public class GeneralPathJHotDrawAdapter extends
 		super.updateOverlay(figure, view);
 		final GeneralPathOverlay overlay = downcastOverlay(view.getData());
 		final GeneralPathRegionOfInterest roi = overlay.getRegionOfInterest();
-		roi.reset();
-		BezierPathFunctions.addToRegionOfInterest(figure.getGeneralPath()
-			.getPathIterator(null), roi);
+		// NB: Only touch the region when the geometry changed; edits such as
+		// color changes leave it alone.
+		final Synced last = synced.get(figure);
+		if (last == null || last.version != figure.getGeometryVersion()) {
+			final Synced current = new Synced(figure);
+			// NB: The region can only be appended to or reset. So subpaths added
+			// after the synced ones are appended, and any other change of the
+			// geometry rebuilds the whole region.
+			final int start = last == null ? -1 : current.getAppendStart(last);
+			if (start < 0) roi.reset();
+			final List<BezierFigure> children = current.children;
+			for (int i = Math.max(start, 0); i < children.size(); i++) {
+				BezierPathFunctions.addToRegionOfInterest(children.get(i)
+					.getBezierPath(), roi);
+			}
+			synced.put(figure, current);
+		}
 		overlay.update();
 	}
 
@@ -109,6 +132,7 @@ public class GeneralPathJHotDrawAdapter extends
 		final GeneralPathOverlay overlay = downcastOverlay(view.getData());
 		final GeneralPathRegionOfInterest roi = overlay.getRegionOfInterest();
 		figure.setGeneralPath(roi.getGeneralPath());
+		synced.put(figure, new Synced(figure));
 	}
 
 	@Override
@@ -122,4 +146,41 @@ public class GeneralPathJHotDrawAdapter extends
 		return figure.getGeneralPath();
 	}
 
+	// -- Helper classes --
+
+	/** The geometry of a figure, as far as its region was built from it. */
+	private static class Synced {
+
+		private final long version;
+		private final List<BezierFigure> children;
+		private final long[] childVersions;
+
+		private Synced(final GeneralPathFigure figure) {
+			version = figure.getGeometryVersion();
+			children = figure.getChildren();
+			childVersions = new long[children.size()];
+			for (int i = 0; i < childVersions.length; i++) {
+				childVersions[i] = figure.getGeometryVersion(children.get(i));
+			}
+		}
+
+		/**
+		 * Gets the index of the first child to append to a region built from the
+		 * given earlier geometry, or -1 if that geometry is not a prefix of this
+		 * one.
+		 */
+		private int getAppendStart(final Synced earlier) {
+			final int count = earlier.children.size();
+			if (count > children.size()) return -1;
+			for (int i = 0; i < count; i++) {
+				if (children.get(i) != earlier.children.get(i) ||
+					childVersions[i] != earlier.childVersions[i])
+				{
+					return -1;
+				}
+			}
+			return count;
+		}
+	}
+
 }
@@ -50,7 +50,7 @@ public class IJBezierTool extends BezierTool implements JHotDrawTool {
 	public IJBezierTool(final ImageDisplay display,
 		final JHotDrawAdapter<BezierFigure> adapter)
 	{
-		super((BezierFigure) adapter.createDefaultFigure());
+		super((BezierFigure) IJCreationTool.getPrototype(display, adapter));
 		this.display = display;
 		this.adapter = adapter;
 	}
@@ -49,7 +49,7 @@ public class IJCreationTool<F extends Figure> extends CreationTool implements JH
 	public IJCreationTool(final ImageDisplay display,
 		final JHotDrawAdapter<F> adapter)
 	{
-		super(adapter.createDefaultFigure());
+		super(getPrototype(display, adapter));
 		this.display = display;
 		this.adapter = adapter;
 	}
@@ -118,6 +118,16 @@ public class IJCreationTool<F extends Figure> extends CreationTool implements JH
 
 	// -- Helper methods --
 
+	/** Gets the shared prototype of the adapter's creation tools. */
+	static Figure getPrototype(final ImageDisplay display,
+		final JHotDrawAdapter<?> adapter)
+	{
+		final JHotDrawService jHotDrawService = display == null ? null : display
+			.getContext().getService(JHotDrawService.class);
+		if (jHotDrawService == null) return adapter.createDefaultFigure();
+		return jHotDrawService.getPrototype(adapter);
+	}
+
 	private boolean isLeftClick(final MouseEvent evt) {
 		return evt.getButton() == MouseEvent.BUTTON1;
 	}
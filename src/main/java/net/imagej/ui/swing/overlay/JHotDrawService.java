@@ -29,10 +29,17 @@
 
 package net.imagej.ui.swing.overlay;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 import net.imagej.ImageJService;
 import net.imagej.display.DataView;
@@ -42,13 +49,19 @@ import net.imagej.display.OverlayView;
 import net.imagej.overlay.Overlay;
 
 import org.jhotdraw.draw.Figure;
+import org.scijava.event.EventHandler;
 import org.scijava.event.EventService;
 import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.plugin.PluginInfo;
 import org.scijava.plugin.PluginService;
+import org.scijava.plugin.event.PluginsAddedEvent;
+import org.scijava.plugin.event.PluginsListEvent;
+import org.scijava.plugin.event.PluginsRemovedEvent;
 import org.scijava.service.AbstractService;
 import org.scijava.service.Service;
+import org.scijava.thread.ThreadService;
 import org.scijava.tool.Tool;
 
 /**
@@ -73,10 +86,47 @@ public class JHotDrawService extends AbstractService implements ImageJService {
 	@Parameter
 	private LogService log;
 
-	private List<JHotDrawAdapter<?>> adapters;
+	@Parameter(required = false)
+	private ThreadService threadService;
+
+	/** Background warm-up of the adapters, started at initialization. */
+	private Future<Void> ready;
+
+	private volatile List<JHotDrawAdapter<?>> adapters;
+
+	/**
+	 * Adapters supporting each overlay/figure class combination, in priority
+	 * order. Built on demand from {@link #adapters()}.
+	 * <p>
+	 * NB: This relies on {@link JHotDrawAdapter#supports(Overlay, Figure)} and
+	 * {@link JHotDrawAdapter#supports(Tool)} depending only on the types of
+	 * their arguments, as is the case for all adapters shipped here.
+	 * </p>
+	 */
+	private final Map<AdapterKey, List<JHotDrawAdapter<?>>> overlayIndex =
+		new ConcurrentHashMap<>();
+
+	/** Adapters supporting each tool class, in priority order. */
+	private final Map<Class<?>, List<JHotDrawAdapter<?>>> toolIndex =
+		new ConcurrentHashMap<>();
+
+	/** Prototype figure of each adapter's creation tools. */
+	private final Map<JHotDrawAdapter<?>, Figure> prototypes =
+		new ConcurrentHashMap<>();
 
 	// -- JHotDrawService methods --
 
+	/**
+	 * Gets a future which completes once the adapters have been instantiated
+	 * and their classes loaded in the background, or null if no warm-up was
+	 * started. The prototypes of the creation tools are built on the EDT after
+	 * that. The service is usable at any time; this only tells whether the
+	 * first use will be fast.
+	 */
+	public Future<Void> ready() {
+		return ready;
+	}
+
 	/**
 	 * Gets the adapter associated with the given tool.
 	 * 
@@ -84,10 +134,8 @@ public class JHotDrawService extends AbstractService implements ImageJService {
 	 * @return the highest-priority adapter that supports the tool
 	 */
 	public JHotDrawAdapter<?> getAdapter(final Tool tool) {
-		for (final JHotDrawAdapter<?> adapter : adapters()) {
-			if (adapter.supports(tool)) return adapter;
-		}
-		return null;
+		final List<JHotDrawAdapter<?>> matches = getToolAdapters(tool);
+		return matches.isEmpty() ? null : matches.get(0);
 	}
 
 	/**
@@ -111,10 +159,9 @@ public class JHotDrawService extends AbstractService implements ImageJService {
 	public JHotDrawAdapter<?> getAdapter(final Overlay overlay,
 		final Figure figure)
 	{
-		for (final JHotDrawAdapter<?> adapter : adapters()) {
-			if (adapter.supports(overlay, figure)) return adapter;
-		}
-		return null;
+		final List<JHotDrawAdapter<?>> matches =
+			getOverlayAdapters(overlay, figure);
+		return matches.isEmpty() ? null : matches.get(0);
 	}
 
 	/**
@@ -137,12 +184,29 @@ public class JHotDrawService extends AbstractService implements ImageJService {
 	public ArrayList<JHotDrawAdapter<?>> getAdapters(final Overlay overlay,
 		final Figure figure)
 	{
-		final ArrayList<JHotDrawAdapter<?>> result =
-			new ArrayList<>();
-		for (final JHotDrawAdapter<?> adapter : adapters()) {
-			if (adapter.supports(overlay, figure)) result.add(adapter);
+		return new ArrayList<>(getOverlayAdapters(overlay, figure));
+	}
+
+	/**
+	 * Gets the prototype figure of the given adapter's creation tools, shared
+	 * by all of them, creating it if needed. Threshold figures are never
+	 * shared, since each belongs to a display. Call on the EDT.
+	 * 
+	 * @return the prototype, or null if the adapter cannot create a figure yet,
+	 *         e.g. because it needs an active display
+	 */
+	public Figure getPrototype(final JHotDrawAdapter<?> adapter) {
+		// NB: Threshold figures belong to the display active when created.
+		if (adapter instanceof ThresholdJHotDrawAdapter) {
+			return adapter.createDefaultFigure();
 		}
-		return result;
+		Figure prototype = prototypes.get(adapter);
+		if (prototype == null) {
+			prototype = adapter.createDefaultFigure();
+			// NB: A missing prototype is retried, since it may depend on state.
+			if (prototype != null) prototypes.put(adapter, prototype);
+		}
+		return prototype;
 	}
 
 	/** Gets all of the discovered adapters. */
@@ -169,18 +233,211 @@ public class JHotDrawService extends AbstractService implements ImageJService {
 		eventService.publish(new FigureCreatedEvent(overlayView, figure, display));
 	}
 
+	// -- Service methods --
+
+	@Override
+	public void initialize() {
+		if (threadService == null) return;
+		// NB: Instantiate the adapters and load their classes off the EDT, so
+		// that opening the first image window does not have to.
+		ready = threadService.run(new Callable<Void>() {
+
+			@Override
+			public Void call() {
+				warmUp();
+				createPrototypesLater(adapters().iterator());
+				return null;
+			}
+		});
+	}
+
+	// -- Event handlers --
+
+	@EventHandler
+	protected void onEvent(final PluginsAddedEvent event) {
+		refreshAdapters(event);
+	}
+
+	@EventHandler
+	protected void onEvent(final PluginsRemovedEvent event) {
+		refreshAdapters(event);
+	}
+
 	// -- Helper methods --
 
 	private List<JHotDrawAdapter<?>> adapters() {
-		if (adapters == null) {
-			// ask the plugin service for the list of available JHotDraw adapters
-			@SuppressWarnings({ "rawtypes", "unchecked" })
-			final List<JHotDrawAdapter<?>> instances =
-				(List) pluginService.createInstancesOfType(JHotDrawAdapter.class);
-			adapters = instances;
-			log.info("Found " + adapters.size() + " JHotDraw adapters.");
+		List<JHotDrawAdapter<?>> result = adapters;
+		if (result == null) {
+			synchronized (this) {
+				result = adapters;
+				if (result == null) {
+					// ask the plugin service for the list of available JHotDraw adapters
+					@SuppressWarnings({ "rawtypes", "unchecked" })
+					final List<JHotDrawAdapter<?>> instances =
+						(List) pluginService.createInstancesOfType(JHotDrawAdapter.class);
+					result = Collections.unmodifiableList(instances);
+					adapters = result;
+					log.info("Found " + result.size() + " JHotDraw adapters.");
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Instantiates the adapters, then loads and initializes the classes of
+	 * their figures and of the creation tools.
+	 */
+	private void warmUp() {
+		final long start = System.currentTimeMillis();
+		final List<Class<?>> classes = new ArrayList<>();
+		// NB: Figures are not created here. That would build JHotDraw figures off
+		// the EDT, and some adapters depend on the active display.
+		for (final JHotDrawAdapter<?> adapter : adapters()) {
+			final Class<?> figureClass = getFigureClass(adapter.getClass());
+			if (figureClass != null) classes.add(figureClass);
+		}
+		classes.add(IJCreationTool.class);
+		classes.add(IJBezierTool.class);
+		classes.add(ToolDelegator.class);
+		for (final Class<?> c : classes) {
+			try {
+				Class.forName(c.getName(), true, c.getClassLoader());
+			}
+			catch (final ClassNotFoundException | LinkageError exc) {
+				log.debug("Cannot warm up " + c.getName(), exc);
+			}
+		}
+		log.debug("Warmed up JHotDraw adapters in " +
+			(System.currentTimeMillis() - start) + " ms");
+	}
+
+	/**
+	 * Creates the prototypes of the creation tools on the EDT, one adapter per
+	 * turn of the event queue, so that pending input is never held up for
+	 * long. Creating a figure on the EDT pays for its first-use setup there,
+	 * ahead of the first tool or window which needs it.
+	 */
+	private void createPrototypesLater(final Iterator<JHotDrawAdapter<?>> iter)
+	{
+		if (!iter.hasNext()) return;
+		threadService.queue(new Runnable() {
+
+			@Override
+			public void run() {
+				final JHotDrawAdapter<?> adapter = iter.next();
+				if (adapter instanceof ThresholdJHotDrawAdapter) {
+					createPrototypesLater(iter);
+					return;
+				}
+				try {
+					getPrototype(adapter);
+				}
+				catch (final RuntimeException exc) {
+					log.debug("Cannot create prototype of " + adapter, exc);
+				}
+				createPrototypesLater(iter);
+			}
+		});
+	}
+
+	/** Gets the figure type an adapter class declares, if it is known. */
+	private static Class<?> getFigureClass(final Class<?> adapterClass) {
+		for (Class<?> c = adapterClass; c != null; c = c.getSuperclass()) {
+			final Type type = c.getGenericSuperclass();
+			if (!(type instanceof ParameterizedType)) continue;
+			final ParameterizedType pType = (ParameterizedType) type;
+			if (pType.getRawType() != AbstractJHotDrawAdapter.class) continue;
+			final Type figureType = pType.getActualTypeArguments()[1];
+			return figureType instanceof Class ? (Class<?>) figureType : null;
+		}
+		return null;
+	}
+
+	/** Gets the adapters supporting the given overlay/figure combination. */
+	private List<JHotDrawAdapter<?>> getOverlayAdapters(final Overlay overlay,
+		final Figure figure)
+	{
+		final AdapterKey key = new AdapterKey(overlay, figure);
+		List<JHotDrawAdapter<?>> matches = overlayIndex.get(key);
+		if (matches == null) {
+			matches = new ArrayList<>();
+			for (final JHotDrawAdapter<?> adapter : adapters()) {
+				if (adapter.supports(overlay, figure)) matches.add(adapter);
+			}
+			matches = Collections.unmodifiableList(matches);
+			overlayIndex.put(key, matches);
+		}
+		return matches;
+	}
+
+	/** Gets the adapters supporting the given tool. */
+	private List<JHotDrawAdapter<?>> getToolAdapters(final Tool tool) {
+		final Class<?> key = tool == null ? null : tool.getClass();
+		if (key == null) return adapterMatches(tool);
+		List<JHotDrawAdapter<?>> matches = toolIndex.get(key);
+		if (matches == null) {
+			matches = adapterMatches(tool);
+			toolIndex.put(key, matches);
+		}
+		return matches;
+	}
+
+	private List<JHotDrawAdapter<?>> adapterMatches(final Tool tool) {
+		final List<JHotDrawAdapter<?>> matches = new ArrayList<>();
+		for (final JHotDrawAdapter<?> adapter : adapters()) {
+			if (adapter.supports(tool)) matches.add(adapter);
+		}
+		return Collections.unmodifiableList(matches);
+	}
+
+	/**
+	 * Discards the adapters, their index and their prototypes if adapter plugins
+	 * changed.
+	 */
+	private void refreshAdapters(final PluginsListEvent event) {
+		boolean affected = false;
+		for (final PluginInfo<?> info : event.getItems()) {
+			if (JHotDrawAdapter.class.isAssignableFrom(info.getPluginType())) {
+				affected = true;
+				break;
+			}
+		}
+		if (!affected) return;
+		synchronized (this) {
+			adapters = null;
+			overlayIndex.clear();
+			toolIndex.clear();
+			prototypes.clear();
+		}
+	}
+
+	// -- Helper classes --
+
+	/** Index key for the classes of an overlay/figure combination. */
+	private static class AdapterKey {
+
+		private final Class<?> overlayClass;
+		private final Class<?> figureClass;
+
+		private AdapterKey(final Overlay overlay, final Figure figure) {
+			overlayClass = overlay == null ? null : overlay.getClass();
+			figureClass = figure == null ? null : figure.getClass();
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof AdapterKey)) return false;
+			final AdapterKey that = (AdapterKey) o;
+			return overlayClass == that.overlayClass &&
+				figureClass == that.figureClass;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(overlayClass) +
+				System.identityHashCode(figureClass);
 		}
-		return adapters;
 	}
 
 }
@@ -32,6 +32,7 @@ package net.imagej.ui.swing.overlay;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
@@ -43,7 +44,6 @@ import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.handle.DragHandle;
 import org.jhotdraw.draw.handle.Handle;
 import org.jhotdraw.geom.Geom;
-import org.scijava.ui.awt.AWTColors;
 import org.scijava.util.ColorRGB;
 
 /**
@@ -55,8 +55,18 @@ import org.scijava.util.ColorRGB;
 public class PointFigure extends AbstractAttributedFigure {
 
 	protected Rectangle2D.Double bounds;
-	private final Rectangle2D.Double rect;
-	private final List<double[]> points;
+
+	/**
+	 * Packed point coordinates (x0, y0, x1, y1, ...), relative to
+	 * ({@link #offsetX}, {@link #offsetY}) so that moving is constant time.
+	 */
+	private double[] xy;
+	private int count;
+	private double offsetX, offsetY;
+
+	/** Spatial index over the relative point coordinates. */
+	private transient PointGrid grid;
+
 	private Color fillColor = Color.yellow;
 	private Color lineColor = Color.white;
 
@@ -70,36 +80,41 @@ public class PointFigure extends AbstractAttributedFigure {
 
 	public PointFigure(List<double[]> pts) {
 		bounds = new Rectangle2D.Double();
-		rect = new Rectangle2D.Double();
-		points = new ArrayList<>();
+		xy = new double[0];
 		setPoints(pts);
 	}
 
 	public void setPoints(List<double[]> pts) {
-		points.clear();
-		double minX = Double.POSITIVE_INFINITY;
-		double minY = Double.POSITIVE_INFINITY;
-		double maxX = Double.NEGATIVE_INFINITY;
-		double maxY = Double.NEGATIVE_INFINITY;
+		final int n = pts.size();
+		if (xy.length < 2 * n) xy = new double[2 * n];
+		int i = 0;
 		for (double[] pt : pts) {
-			points.add(pt.clone());
-			if (pt[0] < minX) minX = pt[0];
-			if (pt[0] > maxX) maxX = pt[0];
-			if (pt[1] < minY) minY = pt[1];
-			if (pt[1] > maxY) maxY = pt[1];
+			xy[i++] = pt[0];
+			xy[i++] = pt[1];
 		}
-		bounds.x = minX;
-		bounds.y = minY;
-		bounds.width = maxX - minX + 0.1;
-		bounds.height = maxY - minY + 0.1;
+		setCoordinates(n);
+	}
+
+	/**
+	 * Sets the points from packed coordinates, without going through a list.
+	 * Does nothing if the figure already holds exactly these points.
+	 * 
+	 * @param coords point coordinates as (x0, y0, x1, y1, ...)
+	 * @param n number of points to take from the array
+	 */
+	public void setPoints(double[] coords, int n) {
+		if (hasPoints(coords, n)) return;
+		if (xy.length < 2 * n) xy = new double[2 * n];
+		System.arraycopy(coords, 0, xy, 0, 2 * n);
+		setCoordinates(n);
 	}
 
 	public void setFillColor(final ColorRGB c) {
-		fillColor = AWTColors.getColor(c);
+		fillColor = FigureAttributes.getColor(c);
 	}
 
 	public void setLineColor(final ColorRGB c) {
-		lineColor = AWTColors.getColor(c);
+		lineColor = FigureAttributes.getColor(c);
 	}
 
 	public double getX() {
@@ -111,16 +126,33 @@ public class PointFigure extends AbstractAttributedFigure {
 	}
 
 	public List<double[]> getPoints() {
+		final List<double[]> points = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			points.add(new double[] { getPointX(i), getPointY(i) });
+		}
 		return points;
 	}
 
+	/** Gets the number of points. */
+	public int getPointCount() {
+		return count;
+	}
+
+	/** Gets the X coordinate of the given point. */
+	public double getPointX(final int index) {
+		return xy[2 * index] + offsetX;
+	}
+
+	/** Gets the Y coordinate of the given point. */
+	public double getPointY(final int index) {
+		return xy[2 * index + 1] + offsetY;
+	}
+
 	public void move(double dx, double dy) {
 		bounds.x += dx;
 		bounds.y += dy;
-		for (double[] pt : points) {
-			pt[0] += dx;
-			pt[1] += dy;
-		}
+		offsetX += dx;
+		offsetY += dy;
 	}
 
 	// DRAWING
@@ -160,16 +192,21 @@ public class PointFigure extends AbstractAttributedFigure {
 	 */
 	@Override
 	public boolean contains(final Point2D.Double p) {
-		final Rectangle2D.Double r = new Rectangle2D.Double();
-		for (double[] pt : points) {
-			r.x = pt[0];
-			r.y = pt[1];
-			// NB - 0.1 works, 1.0 works, even 0.0 works but selection harder
-			r.width = 1.0;
-			r.height = 1.0;
-			final double grow = AttributeKeys.getPerpendicularHitGrowth(this) + 1d;
-			Geom.grow(r, grow, grow);
-			if (r.contains(p)) return true;
+		// NB - 0.1 works, 1.0 works, even 0.0 works but selection harder
+		final double size = 1.0;
+		final double grow = AttributeKeys.getPerpendicularHitGrowth(this) + 1d;
+		// a point at (x, y) is hit within [x - grow, x + size + grow]
+		final double x = p.x - offsetX;
+		final double y = p.y - offsetY;
+		final int[] candidates = getGrid().find(x - size - grow, y - size - grow,
+			x + grow, y + grow);
+		for (final int i : candidates) {
+			final double px = xy[2 * i], py = xy[2 * i + 1];
+			if (x >= px - grow && x < px + size + grow && y >= py - grow &&
+				y < py + size + grow)
+			{
+				return true;
+			}
 		}
 		return false;
 	}
@@ -209,6 +246,7 @@ public class PointFigure extends AbstractAttributedFigure {
 	public PointFigure clone() {
 		final PointFigure that = (PointFigure) super.clone();
 		that.bounds = (Rectangle2D.Double) this.bounds.clone();
+		that.xy = this.xy.clone();
 		return that;
 	}
 
@@ -232,61 +270,186 @@ public class PointFigure extends AbstractAttributedFigure {
 		final double sx = g.getTransform().getScaleX();
 		final double sy = g.getTransform().getScaleY();
 
-		for (double[] pt : points) {
-			final double ctrX = pt[0];
-			final double ctrY = pt[1];
+		// only visit the points whose markers may touch the clip
+		final int[] visible;
+		final Rectangle2D clip = g.getClipBounds();
+		if (clip == null) {
+			visible = getGrid().find(Double.NEGATIVE_INFINITY,
+				Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+				Double.POSITIVE_INFINITY);
+		}
+		else {
+			final double mx = 7 / Math.abs(sx), my = 7 / Math.abs(sy);
+			visible = getGrid().find(clip.getMinX() - offsetX - mx, clip.getMinY() -
+				offsetY - my, clip.getMaxX() - offsetX + mx, clip.getMaxY() - offsetY +
+				my);
+		}
+		if (visible.length == 0) return;
 
-			g.setColor(Color.black);
+		// NB: Batch all markers into one path per color, instead of filling six
+		// rectangles per point.
+		final Path2D.Double outlines = new Path2D.Double();
+		final Path2D.Double centers = new Path2D.Double();
+		final Path2D.Double ticks = new Path2D.Double();
+		for (final int i : visible) {
+			final double ctrX = xy[2 * i] + offsetX;
+			final double ctrY = xy[2 * i + 1] + offsetY;
 
 			// black outline around center region
-			rect.x = ctrX - 2 / sx;
-			rect.y = ctrY - 2 / sy;
-			rect.width = 5 / sx;
-			rect.height = 5 / sy;
-			g.fill(rect);
-
-			g.setColor(fillColor);
+			rect(outlines, ctrX - 2 / sx, ctrY - 2 / sy, 5 / sx, 5 / sy);
 
 			// center region
-			rect.x = ctrX - 1 / sx;
-			rect.y = ctrY - 1 / sy;
-			rect.width = 3 / sx;
-			rect.height = 3 / sy;
-			g.fill(rect);
-
-			g.setColor(lineColor);
-
-			// tick mark line # 1
-			rect.x = ctrX + 3 / sx;
-			rect.y = ctrY;
-			rect.width = 4 / sx;
-			rect.height = 1 / sy;
-			g.fill(rect);
-
-			// tick mark line # 2
-			rect.x = ctrX - 6 / sx;
-			rect.y = ctrY;
-			rect.width = 4 / sx;
-			rect.height = 1 / sy;
-			g.fill(rect);
-
-			// tick mark line # 3
-			rect.x = ctrX;
-			rect.y = ctrY - 6 / sy;
-			rect.width = 1 / sx;
-			rect.height = 4 / sy;
-			g.fill(rect);
-
-			// tick mark line # 4
-			rect.x = ctrX;
-			rect.y = ctrY + 3 / sy;
-			rect.width = 1 / sx;
-			rect.height = 4 / sy;
-			g.fill(rect);
-
-			g.setColor(origC);
+			rect(centers, ctrX - 1 / sx, ctrY - 1 / sy, 3 / sx, 3 / sy);
+
+			// tick mark lines # 1 - 4
+			rect(ticks, ctrX + 3 / sx, ctrY, 4 / sx, 1 / sy);
+			rect(ticks, ctrX - 6 / sx, ctrY, 4 / sx, 1 / sy);
+			rect(ticks, ctrX, ctrY - 6 / sy, 1 / sx, 4 / sy);
+			rect(ticks, ctrX, ctrY + 3 / sy, 1 / sx, 4 / sy);
 		}
+
+		g.setColor(Color.black);
+		g.fill(outlines);
+		g.setColor(fillColor);
+		g.fill(centers);
+		g.setColor(lineColor);
+		g.fill(ticks);
+		g.setColor(origC);
 	}
 
+	// -- Helper methods --
+
+	/** Updates bounds and index after the first n points were replaced. */
+	private void setCoordinates(final int n) {
+		count = n;
+		offsetX = offsetY = 0;
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < 2 * n; i += 2) {
+			final double x = xy[i], y = xy[i + 1];
+			if (x < minX) minX = x;
+			if (x > maxX) maxX = x;
+			if (y < minY) minY = y;
+			if (y > maxY) maxY = y;
+		}
+		bounds.x = minX;
+		bounds.y = minY;
+		bounds.width = maxX - minX + 0.1;
+		bounds.height = maxY - minY + 0.1;
+		grid = null;
+	}
+
+	private boolean hasPoints(final double[] coords, final int n) {
+		if (n != count) return false;
+		for (int i = 0; i < n; i++) {
+			if (coords[2 * i] != getPointX(i) || coords[2 * i + 1] != getPointY(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private PointGrid getGrid() {
+		if (grid == null) grid = new PointGrid(xy, count);
+		return grid;
+	}
+
+	private static void rect(final Path2D.Double path, final double x,
+		final double y, final double w, final double h)
+	{
+		path.moveTo(x, y);
+		path.lineTo(x + w, y);
+		path.lineTo(x + w, y + h);
+		path.lineTo(x, y + h);
+		path.closePath();
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Uniform grid over a set of points, stored as compressed rows: the points
+	 * of cell c are {@code cellPoints[cellStart[c] .. cellStart[c + 1] - 1]}.
+	 */
+	private static class PointGrid {
+
+		/** Smallest cell side, in pixels. */
+		private static final double MIN_CELL_SIZE = 8;
+
+		private final double minX, minY, cellSize;
+		private final int cols, rows;
+		private final int[] cellStart, cellPoints;
+
+		private PointGrid(final double[] xy, final int count) {
+			double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+			double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < 2 * count; i += 2) {
+				x0 = Math.min(x0, xy[i]);
+				x1 = Math.max(x1, xy[i]);
+				y0 = Math.min(y0, xy[i + 1]);
+				y1 = Math.max(y1, xy[i + 1]);
+			}
+			if (count == 0) x0 = y0 = x1 = y1 = 0;
+			minX = x0;
+			minY = y0;
+			// aim for about one point per cell
+			final double area = Math.max(1, (x1 - x0) * (y1 - y0));
+			final double extent = Math.max(x1 - x0, y1 - y0);
+			cellSize = Math.max(MIN_CELL_SIZE, Math.max(Math.sqrt(area /
+				Math.max(1, count)), extent / Math.max(16, 2 * count)));
+			cols = (int) ((x1 - x0) / cellSize) + 1;
+			rows = (int) ((y1 - y0) / cellSize) + 1;
+
+			// counting sort of the points by cell
+			cellStart = new int[cols * rows + 1];
+			final int[] cells = new int[count];
+			for (int i = 0; i < count; i++) {
+				cells[i] = cell(xy[2 * i], xy[2 * i + 1]);
+				cellStart[cells[i] + 1]++;
+			}
+			for (int c = 0; c < cols * rows; c++) {
+				cellStart[c + 1] += cellStart[c];
+			}
+			cellPoints = new int[count];
+			final int[] next = Arrays.copyOf(cellStart, cols * rows);
+			for (int i = 0; i < count; i++) {
+				cellPoints[next[cells[i]]++] = i;
+			}
+		}
+
+		/** Finds the points in cells overlapping the given region. */
+		private int[] find(final double x0, final double y0, final double x1,
+			final double y1)
+		{
+			final int c0 = clamp((x0 - minX) / cellSize, cols);
+			final int c1 = clamp((x1 - minX) / cellSize, cols);
+			final int r0 = clamp((y0 - minY) / cellSize, rows);
+			final int r1 = clamp((y1 - minY) / cellSize, rows);
+			int n = 0;
+			for (int r = r0; r <= r1; r++) {
+				n += cellStart[r * cols + c1 + 1] - cellStart[r * cols + c0];
+			}
+			final int[] result = new int[n];
+			int k = 0;
+			for (int r = r0; r <= r1; r++) {
+				final int from = cellStart[r * cols + c0];
+				final int to = cellStart[r * cols + c1 + 1];
+				System.arraycopy(cellPoints, from, result, k, to - from);
+				k += to - from;
+			}
+			return result;
+		}
+
+		private int cell(final double x, final double y) {
+			return clamp((y - minY) / cellSize, rows) * cols +
+				clamp((x - minX) / cellSize, cols);
+		}
+
+		private static int clamp(final double v, final int size) {
+			if (!(v > 0)) return 0; // also catches NaN
+			return v >= size ? size - 1 : (int) v;
+		}
+	}
 
 }
@@ -30,6 +30,8 @@
 package net.imagej.ui.swing.overlay;
 
 import java.awt.Shape;
+import java.util.ArrayList;
+import java.util.List;
 
 import net.imagej.display.ImageDisplay;
 import net.imagej.display.OverlayView;
@@ -87,7 +89,14 @@ public class PointJHotDrawOverlay extends
 		final PointOverlay pointOverlay = (PointOverlay) overlay;
 		pointFigure.setFillColor(pointOverlay.getFillColor());
 		pointFigure.setLineColor(pointOverlay.getLineColor());
-		pointFigure.setPoints(pointOverlay.getPoints());
+		final List<double[]> points = pointOverlay.getPoints();
+		final double[] coords = new double[2 * points.size()];
+		int i = 0;
+		for (final double[] pt : points) {
+			coords[i++] = pt[0];
+			coords[i++] = pt[1];
+		}
+		pointFigure.setPoints(coords, points.size());
 	}
 
 	@Override
@@ -105,7 +114,12 @@ public class PointJHotDrawOverlay extends
 		pointOverlay.setFillColor(fillColor);
 		pointOverlay.setLineColor(lineColor);
 		// set points
-		pointOverlay.setPoints(figure.getPoints());
+		final int count = figure.getPointCount();
+		final List<double[]> points = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			points.add(new double[] { figure.getPointX(i), figure.getPointY(i) });
+		}
+		pointOverlay.setPoints(points);
 		pointOverlay.update();
 	}
 
@@ -44,6 +44,7 @@ import net.imglib2.roi.PolygonRegionOfInterest;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.BezierFigure;
 import org.jhotdraw.draw.Figure;
+import org.jhotdraw.geom.BezierPath;
 import org.jhotdraw.geom.BezierPath.Node;
 import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
@@ -104,27 +105,32 @@ public class PolygonJHotDrawAdapter extends
 		final PolygonOverlay poverlay = downcastOverlay(view.getData());
 		final PolygonRegionOfInterest roi = poverlay.getRegionOfInterest();
 		final int nodeCount = figure.getNodeCount();
+		// NB: Remove surplus vertices from the end, which avoids shifting.
 		while (roi.getVertexCount() > nodeCount) {
-			roi.removeVertex(nodeCount);
+			roi.removeVertex(roi.getVertexCount() - 1);
 			if (log != null) log.debug("Removed node from overlay.");
 		}
+		// NB: Only touch the vertices which actually moved.
+		final double[] position = new double[2];
 		for (int i = 0; i < nodeCount; i++) {
 			final Node node = figure.getNode(i);
-			final double[] position = new double[] { node.x[0], node.y[0] };
+			position[0] = node.x[0];
+			position[1] = node.y[0];
 			if (roi.getVertexCount() == i) {
 				roi.addVertex(i, new RealPoint(position));
 				if (log != null) log.debug("Added node to overlay");
 			}
 			else {
-				if ((position[0] != roi.getVertex(i).getDoublePosition(0)) ||
-					(position[1] != roi.getVertex(i).getDoublePosition(1)))
+				final RealLocalizable vertex = roi.getVertex(i);
+				if ((position[0] != vertex.getDoublePosition(0)) ||
+					(position[1] != vertex.getDoublePosition(1)))
 				{
 					if (log != null) {
 						log.debug(String.format("Vertex # %d moved to %f,%f", i + 1,
 							position[0], position[1]));
 					}
+					roi.setVertexPosition(i, position);
 				}
-				roi.setVertexPosition(i, position);
 			}
 		}
 		poverlay.update();
@@ -136,23 +142,48 @@ public class PolygonJHotDrawAdapter extends
 		final PolygonOverlay polygonOverlay = downcastOverlay(view.getData());
 		final PolygonRegionOfInterest roi = polygonOverlay.getRegionOfInterest();
 		final int vertexCount = roi.getVertexCount();
-		while (figure.getNodeCount() > vertexCount) {
-			figure.removeNode(vertexCount);
+		final int nodeCount = figure.getNodeCount();
+
+		// count the nodes which differ from their vertex
+		int changes = Math.abs(nodeCount - vertexCount);
+		final int common = Math.min(nodeCount, vertexCount);
+		for (int i = 0; i < common; i++) {
+			if (!matches(figure.getNode(i), roi.getVertex(i))) changes++;
 		}
-		for (int i = 0; i < vertexCount; i++) {
-			final RealLocalizable vertex = roi.getVertex(i);
-			final double x = vertex.getDoublePosition(0);
-			final double y = vertex.getDoublePosition(1);
-			if (figure.getNodeCount() == i) {
-				figure.addNode(new Node(x, y));
+		if (changes == 0) return;
+
+		figure.willChange();
+		if (changes > vertexCount / 2) {
+			// most nodes differ; replace the whole path in one go
+			final BezierPath path = new BezierPath();
+			for (int i = 0; i < vertexCount; i++) {
+				final RealLocalizable vertex = roi.getVertex(i);
+				path.add(new Node(vertex.getDoublePosition(0), vertex
+					.getDoublePosition(1)));
 			}
-			else {
-				final Node node = figure.getNode(i);
-				node.mask = 0;
-				Arrays.fill(node.x, x);
-				Arrays.fill(node.y, y);
+			path.setClosed(figure.isClosed());
+			figure.setBezierPath(path);
+		}
+		else {
+			while (figure.getNodeCount() > vertexCount) {
+				figure.removeNode(figure.getNodeCount() - 1);
+			}
+			for (int i = 0; i < vertexCount; i++) {
+				final RealLocalizable vertex = roi.getVertex(i);
+				final double x = vertex.getDoublePosition(0);
+				final double y = vertex.getDoublePosition(1);
+				if (figure.getNodeCount() == i) {
+					figure.addNode(new Node(x, y));
+				}
+				else if (!matches(figure.getNode(i), vertex)) {
+					final Node node = figure.getNode(i);
+					node.mask = 0;
+					Arrays.fill(node.x, x);
+					Arrays.fill(node.y, y);
+				}
 			}
 		}
+		figure.changed();
 	}
 
 	@Override
@@ -165,4 +196,18 @@ public class PolygonJHotDrawAdapter extends
 		return figure.getBezierPath().toGeneralPath();
 	}
 
+	// -- Helper methods --
+
+	/** Whether the node is a plain corner at the position of the vertex. */
+	private static boolean matches(final Node node, final RealLocalizable vertex)
+	{
+		final double x = vertex.getDoublePosition(0);
+		final double y = vertex.getDoublePosition(1);
+		if (node.mask != 0) return false;
+		for (int c = 0; c < node.x.length; c++) {
+			if (node.x[c] != x || node.y[c] != y) return false;
+		}
+		return true;
+	}
+
 }
@@ -91,6 +91,8 @@ public class PolylineJHotDrawAdapter extends
 		assert view.getData() instanceof GeneralPathOverlay;
 		final GeneralPathOverlay gpo = (GeneralPathOverlay) view.getData();
 		final GeneralPathRegionOfInterest gpr = gpo.getRegionOfInterest();
+		// NB: The path can only be rebuilt as a whole, so skip it when unchanged.
+		if (matches(figure, gpr)) return;
 		gpr.reset();
 		for (int i = 0; i < figure.getNodeCount(); i++) {
 			final Node n = figure.getNode(i);
@@ -106,20 +108,26 @@ public class PolylineJHotDrawAdapter extends
 		assert view.getData() instanceof GeneralPathOverlay;
 		final GeneralPathOverlay gpo = (GeneralPathOverlay) view.getData();
 		final GeneralPathRegionOfInterest gpr = gpo.getRegionOfInterest();
+		if (matches(figure, gpr)) return;
+		figure.willChange();
 		final PathIterator pi = gpr.getGeneralPath().getPathIterator(null);
 		final int nCount = figure.getNodeCount();
 		int i = 0;
 		final double[] pos = new double[6];
 		while (!pi.isDone()) {
 			pi.currentSegment(pos);
-			final Node n = new Node(pos[0], pos[1]);
-			if (i < nCount) figure.getNode(i).setTo(n);
-			else figure.addNode(n);
+			if (i >= nCount) figure.addNode(new Node(pos[0], pos[1]));
+			else if (!matches(figure.getNode(i), pos[0], pos[1])) {
+				figure.getNode(i).setTo(new Node(pos[0], pos[1]));
+			}
 			pi.next();
 			i++;
 		}
-		while (i < figure.getNodeCount())
-			figure.removeNode(i);
+		// NB: Remove surplus nodes from the end, which avoids shifting.
+		while (figure.getNodeCount() > i) {
+			figure.removeNode(figure.getNodeCount() - 1);
+		}
+		figure.changed();
 	}
 
 	@Override
@@ -132,4 +140,35 @@ public class PolylineJHotDrawAdapter extends
 		return figure.getBezierPath().toGeneralPath();
 	}
 
+	// -- Helper methods --
+
+	/** Whether the figure's nodes trace exactly the given path's points. */
+	private static boolean matches(final BezierFigure figure,
+		final GeneralPathRegionOfInterest gpr)
+	{
+		final PathIterator pi = gpr.getGeneralPath().getPathIterator(null);
+		final int nCount = figure.getNodeCount();
+		final double[] pos = new double[6];
+		int i = 0;
+		while (!pi.isDone()) {
+			if (i >= nCount) return false;
+			pi.currentSegment(pos);
+			if (!matches(figure.getNode(i), pos[0], pos[1])) return false;
+			pi.next();
+			i++;
+		}
+		return i == nCount;
+	}
+
+	/** Whether the node is a plain corner at the given position. */
+	private static boolean matches(final Node node, final double x,
+		final double y)
+	{
+		if (node.mask != 0) return false;
+		for (int c = 0; c < node.x.length; c++) {
+			if (node.x[c] != x || node.y[c] != y) return false;
+		}
+		return true;
+	}
+
 }
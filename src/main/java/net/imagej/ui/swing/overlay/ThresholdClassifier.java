@@ -0,0 +1,272 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ui.swing.overlay;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.imagej.Dataset;
+import net.imagej.overlay.ThresholdOverlay;
+import net.imglib2.RandomAccess;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.thread.ThreadService;
+
+/**
+ * Classifies the samples of a {@link Dataset} plane against the range of a
+ * {@link ThresholdOverlay}, as needed by {@link ThresholdFigure}.
+ * <p>
+ * Samples are read through a typed {@link RandomAccess} marching along each
+ * row, and compared directly against the range bounds. Bands of rows are
+ * processed in parallel on the threads of the context's {@link ThreadService}.
+ * </p>
+ */
+public class ThresholdClassifier {
+
+	/** Classification of samples which are NaN. */
+	public static final int NONE = 0;
+
+	/** Classification of samples below the threshold range. */
+	public static final int LESS = 1;
+
+	/** Classification of samples within the threshold range. */
+	public static final int WITHIN = 2;
+
+	/** Classification of samples above the threshold range. */
+	public static final int GREATER = 3;
+
+	/** Smallest number of rows worth handing to another thread. */
+	private static final int ROWS_PER_TASK = 32;
+
+	private final ThreadService threadService;
+
+	/**
+	 * Creates a classifier which runs its bands on the given thread service, or
+	 * entirely on the calling thread if the service is null.
+	 */
+	public ThresholdClassifier(final ThreadService threadService) {
+		this.threadService = threadService;
+	}
+
+	// -- ThresholdClassifier methods --
+
+	/**
+	 * Classifies a region of a plane, storing one value per sample.
+	 * 
+	 * @param dataset dataset whose samples are classified
+	 * @param position position of the plane; the first two entries are ignored
+	 * @param region region of the plane to classify
+	 * @param min lower bound of the threshold range
+	 * @param max upper bound of the threshold range
+	 * @param palette values to store for {@link #NONE}, {@link #LESS},
+	 *          {@link #WITHIN} and {@link #GREATER} samples, in that order
+	 * @param out receives the values of the region in row-major order
+	 */
+	public void classify(final Dataset dataset, final long[] position,
+		final Rectangle region, final double min, final double max,
+		final int[] palette, final int[] out)
+	{
+		classify(dataset, position, region, min, max, palette, out, null);
+	}
+
+	/**
+	 * Classifies a region of a plane, storing one value per sample and also
+	 * recording which samples lie within the threshold range.
+	 * 
+	 * @param bits if non-null, receives one bit per sample which is set for
+	 *          {@link #WITHIN} samples; each row of the region starts on a new
+	 *          word, see {@link #getRowStride(int)} and {@link #isSet}
+	 * @see #classify(Dataset, long[], Rectangle, double, double, int[], int[])
+	 */
+	public void classify(final Dataset dataset, final long[] position,
+		final Rectangle region, final double min, final double max,
+		final int[] palette, final int[] out, final long[] bits)
+	{
+		classify(dataset, position, region, 1, min, max, palette, out, bits);
+	}
+
+	/**
+	 * Classifies every {@code step}th sample of a region of a plane along both
+	 * axes, starting at its top left corner, e.g. to render the region at a
+	 * coarser resolution than that of the data.
+	 * 
+	 * @param step distance between the classified samples; the values and bits
+	 *          are stored for a grid of {@link #getSampleCount} columns and rows
+	 * @see #classify(Dataset, long[], Rectangle, double, double, int[], int[],
+	 *      long[])
+	 */
+	public void classify(final Dataset dataset, final long[] position,
+		final Rectangle region, final int step, final double min,
+		final double max, final int[] palette, final int[] out, final long[] bits)
+	{
+		final int rows = getSampleCount(region.height, step);
+		final Runnable[] bands = new Runnable[getBandCount(rows)];
+		for (int i = 0; i < bands.length; i++) {
+			bands[i] = new ClassifyTask(dataset, position, region, step, min, max,
+				palette, out, bits, rows * i / bands.length, rows * (i + 1) /
+					bands.length);
+		}
+		invokeAll(bands);
+	}
+
+	/**
+	 * Gets the number of samples classified along a region side of the given
+	 * length, at the given step.
+	 */
+	public static int getSampleCount(final int length, final int step) {
+		return (length + step - 1) / step;
+	}
+
+	/** Gets the number of words per row of a bitmap of the given width. */
+	public static int getRowStride(final int width) {
+		return (width + 63) >>> 6;
+	}
+
+	/** Tests whether the bit of sample (x, y) is set in the given bitmap. */
+	public static boolean isSet(final long[] bits, final int width,
+		final int x, final int y)
+	{
+		final int word = y * getRowStride(width) + (x >>> 6);
+		return (bits[word] & (1L << x)) != 0;
+	}
+
+	/**
+	 * Classifies a single sample.
+	 * 
+	 * @return one of {@link #NONE}, {@link #LESS}, {@link #WITHIN} or
+	 *         {@link #GREATER}
+	 */
+	public int classify(final Dataset dataset, final long[] position,
+		final double min, final double max)
+	{
+		final RandomAccess<? extends RealType<?>> access = dataset.randomAccess();
+		access.setPosition(position);
+		return classify(access.get().getRealDouble(), min, max);
+	}
+
+	// -- Helper methods --
+
+	private int getBandCount(final int rows) {
+		if (threadService == null) return 1;
+		final int cpus = Runtime.getRuntime().availableProcessors();
+		return Math.max(1, Math.min(cpus, rows / ROWS_PER_TASK));
+	}
+
+	/** Runs the first band on the calling thread and the others in parallel. */
+	private void invokeAll(final Runnable[] bands) {
+		final List<Future<?>> futures = new ArrayList<>(bands.length - 1);
+		for (int i = 1; i < bands.length; i++) {
+			futures.add(threadService.run(bands[i]));
+		}
+		bands[0].run();
+		for (final Future<?> future : futures) {
+			try {
+				future.get();
+			}
+			catch (final InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(exc);
+			}
+			catch (final ExecutionException exc) {
+				throw new IllegalStateException(exc.getCause());
+			}
+		}
+	}
+
+	private static int classify(final double value, final double min,
+		final double max)
+	{
+		if (value < min) return LESS;
+		if (value > max) return GREATER;
+		if (value <= max) return WITHIN;
+		return NONE; // NaN
+	}
+
+	// -- Helper classes --
+
+	/** Classifies a band of sampled rows of a plane region. */
+	private static class ClassifyTask implements Runnable {
+
+		private final Dataset dataset;
+		private final long[] position;
+		private final Rectangle region;
+		private final int step;
+		private final double min, max;
+		private final int[] palette, out;
+		private final long[] bits;
+		private final int y0, y1;
+
+		private ClassifyTask(final Dataset dataset, final long[] position,
+			final Rectangle region, final int step, final double min,
+			final double max, final int[] palette, final int[] out,
+			final long[] bits, final int y0, final int y1)
+		{
+			this.dataset = dataset;
+			this.position = position;
+			this.region = region;
+			this.step = step;
+			this.min = min;
+			this.max = max;
+			this.palette = palette;
+			this.out = out;
+			this.bits = bits;
+			this.y0 = y0;
+			this.y1 = y1;
+		}
+
+		@Override
+		public void run() {
+			final RandomAccess<? extends RealType<?>> access =
+				dataset.randomAccess();
+			access.setPosition(position);
+			final int width = getSampleCount(region.width, step);
+			final int stride = getRowStride(width);
+			for (int y = y0; y < y1; y++) {
+				access.setPosition(region.x, 0);
+				access.setPosition(region.y + (long) y * step, 1);
+				final int offset = y * width;
+				// NB: Rows never share words, so bands can be written concurrently.
+				final int wordOffset = y * stride;
+				for (int x = 0; x < width; x++) {
+					final int c = classify(access.get().getRealDouble(), min, max);
+					out[offset + x] = palette[c];
+					if (bits != null && c == WITHIN) {
+						bits[wordOffset + (x >>> 6)] |= 1L << x;
+					}
+					access.move(step, 0);
+				}
+			}
+		}
+	}
+
+}
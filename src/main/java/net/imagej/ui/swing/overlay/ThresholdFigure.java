@@ -31,23 +31,25 @@ package net.imagej.ui.swing.overlay;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Point2D.Double;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 import net.imagej.Dataset;
 import net.imagej.axis.AxisType;
 import net.imagej.display.ImageDisplay;
 import net.imagej.overlay.ThresholdOverlay;
-import net.imglib2.Cursor;
-import net.imglib2.ops.pointset.HyperVolumePointSet;
-import net.imglib2.ops.pointset.PointSet;
 
 import org.jhotdraw.draw.AbstractAttributedFigure;
 import org.jhotdraw.draw.AttributeKeys;
 import org.scijava.display.Displayable;
+import org.scijava.thread.ThreadService;
 import org.scijava.ui.awt.AWTColors;
+import org.scijava.util.ColorRGB;
 
 /**
  * Implementation of JHotDraw Figure that can display a {@link ThresholdOverlay}
@@ -63,8 +65,33 @@ public class ThresholdFigure extends AbstractAttributedFigure implements
 	private final ImageDisplay display;
 	private final Dataset dataset;
 	private final ThresholdOverlay overlay;
-	private final Rectangle2D.Double rect;
-	private double[] tmpPos;
+
+	/** Classification kernel, used for both drawing and hit testing. */
+	private final ThresholdClassifier classifier;
+
+	/** Cached rendering of the classified plane, as a packed ARGB image. */
+	private transient BufferedImage mask;
+
+	/** Threshold settings and plane position the cached mask was built for. */
+	private transient MaskKey maskKey;
+
+	/** Set when the underlying data changes, to force a rebuild of the mask. */
+	private transient volatile boolean maskStale;
+
+	/** Plane region, in pixels, covered by the cached mask. */
+	private transient Rectangle maskRegion;
+
+	/** Distance, in plane pixels, between the samples of the cached mask. */
+	private transient int maskStep;
+
+	/** Bitmap of the samples of the mask within the threshold range. */
+	private transient long[] maskBits;
+
+	/** Scratch plane position used for hit testing. */
+	private transient long[] hitPosition;
+
+	/** Visible region of the drawing, or null if unknown. */
+	private Rectangle2D.Double viewport;
 	
 	public ThresholdFigure(ImageDisplay display, Dataset dataset,
 		ThresholdOverlay overlay)
@@ -72,7 +99,8 @@ public class ThresholdFigure extends AbstractAttributedFigure implements
 		this.display = display;
 		this.dataset = dataset;
 		this.overlay = overlay;
-		this.rect = new Rectangle2D.Double();
+		classifier = new ThresholdClassifier(display.getContext().getService(
+			ThreadService.class));
 		setAttributeEnabled(AttributeKeys.FILL_COLOR, true);
 		setAttributeEnabled(AttributeKeys.STROKE_COLOR, false);
 		setAttributeEnabled(AttributeKeys.TEXT_COLOR, false);
@@ -82,15 +110,34 @@ public class ThresholdFigure extends AbstractAttributedFigure implements
 	
 	@Override
 	public boolean contains(Point2D.Double pt) {
-		int d = dataset.numDimensions();
-		if ((tmpPos == null) || (tmpPos.length != d)) tmpPos = new double[d];
-		tmpPos[0] = pt.x;
-		tmpPos[1] = pt.y;
-		for (int i = 2; i < tmpPos.length; i++) {
-			AxisType axisType = dataset.axis(i).type();
-			tmpPos[i] = display.getLongPosition(axisType);
+		final long x = (long) Math.floor(pt.x);
+		final long y = (long) Math.floor(pt.y);
+		if (x < 0 || y < 0 || x >= dataset.dimension(0) ||
+			y >= dataset.dimension(1))
+		{
+			return false;
+		}
+		final double min = overlay.getRangeMin();
+		final double max = overlay.getRangeMax();
+		hitPosition = getPlanePosition(hitPosition);
+		// NB: Mouse-over hit tests are answered from the classification of the
+		// last painted region whenever possible, without touching the data.
+		final MaskKey key = maskKey;
+		final Rectangle region = maskRegion;
+		final long[] bits = maskBits;
+		// NB: A mask coarser than the data cannot tell single samples apart.
+		if (!maskStale && key != null && key.covers(min, max, hitPosition) &&
+			maskStep == 1 && region.contains(x, y))
+		{
+			return ThresholdClassifier.isSet(bits, region.width,
+				(int) (x - region.x), (int) (y - region.y));
 		}
-		return overlay.getRegionOfInterest().contains(tmpPos);
+		hitPosition[0] = x;
+		hitPosition[1] = y;
+		final boolean within = classifier.classify(dataset, hitPosition, min,
+			max) == ThresholdClassifier.WITHIN;
+		hitPosition[0] = hitPosition[1] = 0;
+		return within;
 	}
 
 	@Override
@@ -138,49 +185,64 @@ public class ThresholdFigure extends AbstractAttributedFigure implements
 		// do nothing
 	}
 
+	/** Gets the dataset whose data is classified by this figure. */
+	public Dataset getDataset() {
+		return dataset;
+	}
+
+	/**
+	 * Discards the cached classification of the viewed plane, e.g. because the
+	 * underlying data changed.
+	 */
+	public void invalidateMask() {
+		maskStale = true;
+	}
+
+	/**
+	 * Sets the region of the drawing which is currently visible. When a paint
+	 * falls within it, the whole region is classified at once, so that later
+	 * partial repaints reuse the mask. Paints outside of it, such as captures,
+	 * are classified for the painted region only. Either way, the mask has at
+	 * most one sample per device pixel.
+	 * 
+	 * @param viewport The visible region in drawing coordinates, or null to
+	 *          classify whatever region the graphics clip asks for.
+	 */
+	public void setViewport(final Rectangle2D.Double viewport) {
+		this.viewport = viewport;
+	}
+
 	// NB - not using a ConditionalPointSet directly. ConditionalPointSet may
 	// encompass a huge hypervolume and we are only interested in the points in
-	// the displayed plane. So we define a smaller hypervolume of just the viewed
-	// plane, iterate it and then classify the point directly. This is
+	// the displayed plane. So we read just the visible part of the viewed plane
+	// and compare each sample against the threshold range directly. This is
 	// much faster for display purposes.
 
 	@Override
 	protected void drawFill(final Graphics2D g) {
-		final Color origC = g.getColor();
-		final Color withinColor = AWTColors.getColor(overlay.getColorWithin());
-		final Color lessColor = AWTColors.getColor(overlay.getColorLess());
-		final Color greaterColor = AWTColors.getColor(overlay.getColorGreater());
-		Color color = null;
-		Color lastColor = null;
-		rect.width = 1;
-		rect.height = 1;
-		// only iterate currently viewed plane
-		Cursor<long[]> cursor = getViewedPlane().cursor();
-		while (cursor.hasNext()) {
-			long[] pos = cursor.next();
-			// only draw points that satisfy the threshold conditions
-			int classification = overlay.classify(pos);
-			if (classification == Integer.MAX_VALUE) { // NaN data value
-				color = null;
-			}
-			else if (classification < 0) {
-				color = lessColor;
-			}
-			else if (classification > 0) {
-				color = greaterColor;
-			}
-			else color = withinColor;
-			if (color != null) {
-				if (color != lastColor) {
-					g.setColor(color);
-					lastColor = color;
-				}
-				rect.x = pos[0];
-				rect.y = pos[1];
-				g.fill(rect);
-			}
+		// NB: Only the clip limits what must be painted; the viewport merely
+		// decides how much is classified ahead of time.
+		final Rectangle needed = getPixelRegion(g.getClipBounds(), null);
+		if (needed.isEmpty()) return;
+		final BufferedImage image = getMask(needed, getStep(g.getTransform()));
+		if (image == null) return;
+		final Rectangle region = maskRegion;
+		final int step = maskStep;
+		if (step == 1) {
+			g.drawImage(image, region.x, region.y, null);
+			return;
+		}
+		// NB: The last sample of each row and column may stand for fewer than
+		// step pixels, so the stretched mask is cut back to its region.
+		final Graphics2D g2 = (Graphics2D) g.create();
+		try {
+			g2.clip(region);
+			g2.drawImage(image, region.x, region.y, image.getWidth() * step, image
+				.getHeight() * step, null);
+		}
+		finally {
+			g2.dispose();
 		}
-		g.setColor(origC);
 	}
 
 	// -- Displayable --
@@ -195,15 +257,158 @@ public class ThresholdFigure extends AbstractAttributedFigure implements
 
 	// -- helpers --
 
-	private PointSet getViewedPlane() {
-		long[] pt1 = new long[dataset.numDimensions()];
-		long[] pt2 = pt1.clone();
-		pt2[0] = dataset.dimension(0) - 1;
-		pt2[1] = dataset.dimension(1) - 1;
-		for (int i = 2; i < pt1.length; i++) {
+	/**
+	 * Gets the plane pixels touched by the given drawing regions, restricted to
+	 * the plane's extents. Null regions do not restrict anything.
+	 */
+	private Rectangle getPixelRegion(final Rectangle2D area,
+		final Rectangle2D limit)
+	{
+		final Rectangle region = new Rectangle(0, 0, (int) dataset.dimension(0),
+			(int) dataset.dimension(1));
+		if (limit != null) {
+			region.setBounds(region.intersection(limit.getBounds()));
+		}
+		if (area != null) region.setBounds(region.intersection(area.getBounds()));
+		return region;
+	}
+
+	/**
+	 * Gets the number of plane pixels per mask sample for painting through the
+	 * given transform: one when zoomed in, or enough pixels to span at least a
+	 * device pixel when zoomed out.
+	 */
+	private static int getStep(final AffineTransform transform) {
+		final double scale = Math.max(Math.abs(transform.getScaleX()), Math.abs(
+			transform.getScaleY()));
+		if (scale >= 1 || scale <= 0) return 1;
+		// NB: Allow for rounding errors of scales such as 1/3.
+		return (int) Math.ceil(1 / scale - 1e-9);
+	}
+
+	/**
+	 * Gets the classified plane as an image covering at least the needed region,
+	 * rebuilding it only when the threshold range, colors, plane position, data
+	 * or resolution have changed, or when the needed region is not yet covered.
+	 * 
+	 * @param step number of plane pixels per mask sample, see
+	 *          {@link #getStep(AffineTransform)}
+	 */
+	private BufferedImage getMask(final Rectangle needed, final int step) {
+		final MaskKey key = new MaskKey(overlay, getPlanePosition(null));
+		if (mask == null || maskStale || !key.equals(maskKey) ||
+			step != maskStep || !maskRegion.contains(needed))
+		{
+			// NB: Classify the whole visible region rather than just the clip, so
+			// that partial repaints of the same view reuse the mask.
+			final Rectangle visible = getPixelRegion(null, viewport);
+			final Rectangle region =
+				snap(visible.contains(needed) ? visible : needed, step);
+			maskStale = false;
+			maskKey = null;
+			final long[] bits = new long[ThresholdClassifier.getRowStride(
+				ThresholdClassifier.getSampleCount(region.width, step)) *
+				ThresholdClassifier.getSampleCount(region.height, step)];
+			mask = classifyPlane(key, region, step, bits);
+			maskRegion = region;
+			maskStep = step;
+			maskBits = bits;
+			maskKey = key;
+		}
+		return mask;
+	}
+
+	/**
+	 * Grows the given region to start on multiples of the step, so that the
+	 * samples of coarse masks stay put as the view is panned.
+	 */
+	private static Rectangle snap(final Rectangle region, final int step) {
+		if (step == 1) return region;
+		final int x = region.x / step * step;
+		final int y = region.y / step * step;
+		return new Rectangle(x, y, region.x + region.width - x, region.y +
+			region.height - y);
+	}
+
+	/**
+	 * Classifies every step-th point of the given region of the viewed plane into
+	 * a packed ARGB image, and a bitmap of the samples within the range.
+	 */
+	private BufferedImage classifyPlane(final MaskKey key,
+		final Rectangle region, final int step, final long[] bits)
+	{
+		final int w = ThresholdClassifier.getSampleCount(region.width, step);
+		final int h = ThresholdClassifier.getSampleCount(region.height, step);
+		final int[] argb = new int[w * h];
+		final int[] palette =
+			{ 0, key.lessColor, key.withinColor, key.greaterColor };
+		classifier.classify(dataset, key.position, region, step, key.min,
+			key.max, palette, argb, bits);
+		final BufferedImage image =
+			new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		image.getRaster().setDataElements(0, 0, w, h, argb);
+		return image;
+	}
+
+	/**
+	 * Gets the position of the viewed plane, reusing the given array if it has
+	 * the right length.
+	 */
+	private long[] getPlanePosition(final long[] reuse) {
+		final int d = dataset.numDimensions();
+		final long[] position =
+			reuse != null && reuse.length == d ? reuse : new long[d];
+		for (int i = 2; i < position.length; i++) {
 			AxisType axisType = dataset.axis(i).type();
-			pt1[i] = pt2[i] = display.getLongPosition(axisType);
+			position[i] = display.getLongPosition(axisType);
+		}
+		return position;
+	}
+
+	private static int toARGB(final ColorRGB color) {
+		final Color c = AWTColors.getColor(color);
+		return c == null ? 0 : c.getRGB();
+	}
+
+	/** The inputs which determine the content of the classification mask. */
+	private static final class MaskKey {
+
+		private final double min, max;
+		private final int withinColor, lessColor, greaterColor;
+		private final long[] position;
+
+		private MaskKey(final ThresholdOverlay overlay, final long[] position) {
+			min = overlay.getRangeMin();
+			max = overlay.getRangeMax();
+			withinColor = toARGB(overlay.getColorWithin());
+			lessColor = toARGB(overlay.getColorLess());
+			greaterColor = toARGB(overlay.getColorGreater());
+			this.position = position;
+		}
+
+		/** Whether hit tests for the given range and plane may use the mask. */
+		private boolean covers(final double rangeMin, final double rangeMax,
+			final long[] planePosition)
+		{
+			return java.lang.Double.compare(min, rangeMin) == 0 &&
+				java.lang.Double.compare(max, rangeMax) == 0 &&
+				Arrays.equals(position, planePosition);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof MaskKey)) return false;
+			final MaskKey that = (MaskKey) o;
+			return Arrays.equals(position, that.position) &&
+				java.lang.Double.compare(min, that.min) == 0 &&
+				java.lang.Double.compare(max, that.max) == 0 &&
+				withinColor == that.withinColor && lessColor == that.lessColor &&
+				greaterColor == that.greaterColor;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(position);
 		}
-		return new HyperVolumePointSet(pt1, pt2);
 	}
 }
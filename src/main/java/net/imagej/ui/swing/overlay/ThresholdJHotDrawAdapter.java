@@ -30,10 +30,16 @@
 package net.imagej.ui.swing.overlay;
 
 import java.awt.Shape;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import net.imagej.Dataset;
 import net.imagej.display.ImageDisplay;
 import net.imagej.display.ImageDisplayService;
+import net.imagej.event.DatasetUpdatedEvent;
 import net.imagej.overlay.Overlay;
 import net.imagej.overlay.ThresholdOverlay;
 import net.imagej.threshold.ThresholdService;
@@ -41,6 +47,7 @@ import net.imagej.ui.swing.tools.SwingPolygonTool;
 
 import org.jhotdraw.draw.Figure;
 import org.scijava.Priority;
+import org.scijava.event.EventHandler;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 import org.scijava.tool.Tool;
@@ -62,6 +69,11 @@ public class ThresholdJHotDrawAdapter extends
 	@Parameter
 	private ThresholdService thresholdService;
 
+	/** Figures created by this adapter, whose cached masks track their data. */
+	private final Set<ThresholdFigure> figures = Collections
+		.synchronizedSet(Collections
+			.newSetFromMap(new WeakHashMap<ThresholdFigure, Boolean>()));
+
 	// -- JHotDrawAdapter methods --
 
 	@Override
@@ -89,7 +101,9 @@ public class ThresholdJHotDrawAdapter extends
 		Dataset dataset = imageDisplayService.getActiveDataset();
 		if (dataset == null) return null;
 		ThresholdOverlay overlay = thresholdService.getThreshold(display);
-		return new ThresholdFigure(display, dataset, overlay);
+		ThresholdFigure figure = new ThresholdFigure(display, dataset, overlay);
+		figures.add(figure);
+		return figure;
 	}
 
 	@Override
@@ -102,4 +116,17 @@ public class ThresholdJHotDrawAdapter extends
 		throw new UnsupportedOperationException("to be implemented"); // TODO
 	}
 
+	// -- Event handlers --
+
+	@EventHandler
+	protected void onEvent(final DatasetUpdatedEvent event) {
+		final List<ThresholdFigure> snapshot;
+		synchronized (figures) {
+			snapshot = new ArrayList<>(figures);
+		}
+		for (final ThresholdFigure figure : snapshot) {
+			if (figure.getDataset() == event.getObject()) figure.invalidateMask();
+		}
+	}
+
 }
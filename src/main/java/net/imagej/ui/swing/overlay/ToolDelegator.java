@@ -32,13 +32,22 @@ package net.imagej.ui.swing.overlay;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.event.MouseEvent;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 
 import javax.swing.ActionMap;
 import javax.swing.InputMap;
 import javax.swing.event.UndoableEditListener;
 
+import org.jhotdraw.draw.Drawing;
 import org.jhotdraw.draw.DrawingEditor;
 import org.jhotdraw.draw.DrawingView;
+import org.jhotdraw.draw.Figure;
+import org.jhotdraw.draw.event.CompositeFigureEvent;
+import org.jhotdraw.draw.event.CompositeFigureListener;
+import org.jhotdraw.draw.event.FigureAdapter;
+import org.jhotdraw.draw.event.FigureEvent;
+import org.jhotdraw.draw.event.FigureListener;
 import org.jhotdraw.draw.event.ToolListener;
 import org.jhotdraw.draw.tool.AbstractTool;
 
@@ -55,6 +64,31 @@ public class ToolDelegator extends AbstractTool {
 
 	private boolean selection;
 
+	/** Selectable figure found under the pointer by the last hit test. */
+	private Figure lastHit;
+
+	/** View in which {@link #lastHit} was found. */
+	private DrawingView lastHitView;
+
+	/** Drawing of {@link #lastHitView} when {@link #lastHit} was found. */
+	private Drawing lastHitDrawing;
+
+	/** Forgets the last hit figure once it leaves the drawing. */
+	private final FigureListener lastHitListener = new FigureAdapter() {
+
+		@Override
+		public void figureRemoved(final FigureEvent e) {
+			clearLastHit();
+		}
+	};
+
+	/**
+	 * Forgets the last hit figure once anything changes over it: a figure
+	 * moved, resized, added or removed there, or a change of z-order, all of
+	 * which invalidate the area of the drawing involved.
+	 */
+	private final DrawingListener drawingListener = new DrawingListener();
+
 	public ToolDelegator() {
 		selectionTool = new IJDelegationSelectionTool();
 		for (final Object listener : listenerList.getListenerList()) {
@@ -75,6 +109,24 @@ public class ToolDelegator extends AbstractTool {
 	}
 
 	public void setCreationTool(final JHotDrawTool creationTool) {
+		if (this.creationTool == creationTool) return;
+		final JHotDrawTool oldTool = this.creationTool;
+		if (oldTool != null) {
+			if (activeTool == oldTool) {
+				if (getEditor() != null) oldTool.deactivate(getEditor());
+				activeTool = null;
+			}
+			// NB: Creation tools may be reused later, so they must not keep our
+			// listeners while they are not in use.
+			for (final Object listener : listenerList.getListenerList()) {
+				if (listener instanceof ToolListener) {
+					oldTool.removeToolListener((ToolListener) listener);
+				}
+				else if (listener instanceof UndoableEditListener) {
+					oldTool.removeUndoableEditListener((UndoableEditListener) listener);
+				}
+			}
+		}
 		this.creationTool = creationTool;
 		if (creationTool == null) return;
 
@@ -163,6 +215,7 @@ public class ToolDelegator extends AbstractTool {
 		if (activeTool != null) {
 			activeTool.deactivate(editer);
 		}
+		clearLastHit();
 		super.deactivate(editer);
 	}
 
@@ -231,17 +284,13 @@ public class ToolDelegator extends AbstractTool {
 
 	protected boolean maybeSwitchTool(final MouseEvent event) {
 		if (activeTool != null && activeTool.isConstructing()) return false;
-		anchor = new Point(event.getX(), event.getY());
+		if (anchor == null) anchor = new Point();
+		anchor.setLocation(event.getX(), event.getY());
 		JHotDrawTool tool = creationTool;
 		final DrawingView view = getView();
-		if (view != null && view.isEnabled()) {
-			if (view.findHandle(anchor) != null ||
-				(view.findFigure(anchor) != null && view.findFigure(anchor)
-					.isSelectable()))
-			{
-				if (selection) tool = selectionTool;
-				else tool = null;
-			}
+		if (view != null && view.isEnabled() && isOverFigure(view, anchor)) {
+			if (selection) tool = selectionTool;
+			else tool = null;
 		}
 
 		if (activeTool != tool) {
@@ -259,4 +308,93 @@ public class ToolDelegator extends AbstractTool {
 		}
 		return false;
 	}
+
+	// -- Helper methods --
+
+	/**
+	 * Tests whether the given view point is over a handle or a selectable
+	 * figure. Handles are checked first, as they lie on top of everything.
+	 * While the pointer stays within the figure found last time, the drawing is
+	 * not queried for figures; otherwise it is queried once.
+	 */
+	private boolean isOverFigure(final DrawingView view, final Point p) {
+		if (view.findHandle(p) != null) return true;
+		if (lastHit != null) {
+			if (view == lastHitView && view.getDrawing() == lastHitDrawing &&
+				lastHit.isVisible() && lastHit.isSelectable())
+			{
+				final Point2D.Double pt = view.viewToDrawing(p);
+				if (lastHit.getBounds().contains(pt) && lastHit.contains(pt)) {
+					return true;
+				}
+			}
+			clearLastHit();
+		}
+		final Figure figure = view.findFigure(p);
+		if (figure == null || !figure.isSelectable()) return false;
+		final Drawing drawing = view.getDrawing();
+		if (drawing != null && !isCovered(drawing, figure)) {
+			lastHit = figure;
+			lastHitView = view;
+			lastHitDrawing = drawing;
+			figure.addFigureListener(lastHitListener);
+			drawing.addFigureListener(drawingListener);
+			drawing.addCompositeFigureListener(drawingListener);
+		}
+		return true;
+	}
+
+	/**
+	 * Tests whether any visible figure in front of the given one overlaps it,
+	 * in which case which of them is hit depends on the point, and the hit
+	 * cannot be reused.
+	 */
+	private boolean isCovered(final Drawing drawing, final Figure figure) {
+		final Rectangle2D.Double area = figure.getDrawingArea();
+		final int index = drawing.indexOf(figure);
+		for (final Figure f : drawing.findFigures(area)) {
+			if (f != figure && f.isVisible() && drawing.indexOf(f) > index) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void clearLastHit() {
+		if (lastHit != null) lastHit.removeFigureListener(lastHitListener);
+		if (lastHitDrawing != null) {
+			lastHitDrawing.removeFigureListener(drawingListener);
+			lastHitDrawing.removeCompositeFigureListener(drawingListener);
+		}
+		lastHit = null;
+		lastHitView = null;
+		lastHitDrawing = null;
+	}
+
+	// -- Helper classes --
+
+	/** Listens to the drawing of {@link #lastHit}. */
+	private class DrawingListener extends FigureAdapter implements
+		CompositeFigureListener
+	{
+
+		@Override
+		public void areaInvalidated(final FigureEvent e) {
+			if (lastHit != null && e.getInvalidatedArea().intersects(lastHit
+				.getDrawingArea()))
+			{
+				clearLastHit();
+			}
+		}
+
+		@Override
+		public void figureAdded(final CompositeFigureEvent e) {
+			clearLastHit();
+		}
+
+		@Override
+		public void figureRemoved(final CompositeFigureEvent e) {
+			clearLastHit();
+		}
+	}
 }
@@ -105,6 +105,13 @@ public abstract class AbstractSwingImageDisplayViewer extends
 
 	@Override
 	public Dataset capture() {
+		try {
+			// NB: Make sure the screen image reflects the latest redraw request.
+			getPanel().awaitRedraw();
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+		}
 		return getCanvas().capture();
 	}
 
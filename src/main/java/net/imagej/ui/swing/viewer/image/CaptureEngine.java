@@ -0,0 +1,247 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.viewer.image;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.imagej.Dataset;
+import net.imglib2.RandomAccess;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.basictypeaccess.PlanarAccess;
+import net.imglib2.img.basictypeaccess.array.ByteArray;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.thread.ThreadService;
+
+/**
+ * Converts rendered ARGB pixels into the channel planes of an RGB
+ * {@link Dataset}, as done by {@link JHotDrawImageCanvas#capture()}.
+ * <p>
+ * Pixels are read straight from the packed ARGB array in row-major order, and
+ * written through the backing byte arrays of the dataset when possible, or
+ * through a {@link RandomAccess} otherwise. Bands of rows are processed in
+ * parallel on the threads of the context's {@link ThreadService}.
+ * </p>
+ */
+public class CaptureEngine {
+
+	/** Smallest number of rows worth handing to another thread. */
+	private static final int ROWS_PER_TASK = 64;
+
+	private final ThreadService threadService;
+
+	/**
+	 * Creates an engine which runs its bands on the given thread service, or
+	 * entirely on the calling thread if the service is null.
+	 */
+	public CaptureEngine(final ThreadService threadService) {
+		this.threadService = threadService;
+	}
+
+	// -- CaptureEngine methods --
+
+	/**
+	 * Copies packed ARGB pixels into the first three channels of the given
+	 * dataset, which must have dimensions (width, height, 3).
+	 * 
+	 * @param argb packed ARGB pixels, in row-major order
+	 * @param width width of the pixel rows
+	 * @param rows number of pixel rows to copy
+	 * @param y row of the dataset at which the first row is stored
+	 * @param dataset 8-bit RGB dataset to populate
+	 */
+	public void copyARGB(final int[] argb, final int width, final int rows,
+		final long y, final Dataset dataset)
+	{
+		final byte[][] planes = new byte[3][];
+		final int[] offsets = new int[3];
+		if (getBytePlanes(dataset, planes, offsets)) {
+			final int shift = (int) (y * width);
+			for (int c = 0; c < offsets.length; c++) {
+				offsets[c] += shift;
+			}
+			final Runnable[] bands = new Runnable[getBandCount(rows)];
+			for (int i = 0; i < bands.length; i++) {
+				bands[i] = new ArrayTask(argb, width, rows * i / bands.length, rows *
+					(i + 1) / bands.length, planes, offsets);
+			}
+			invokeAll(bands);
+		}
+		else {
+			final Runnable[] bands = new Runnable[getBandCount(rows)];
+			for (int i = 0; i < bands.length; i++) {
+				bands[i] = new AccessTask(argb, width, rows * i / bands.length, rows *
+					(i + 1) / bands.length, y, dataset);
+			}
+			invokeAll(bands);
+		}
+	}
+
+	// -- Helper methods --
+
+	private int getBandCount(final int rows) {
+		if (threadService == null) return 1;
+		final int cpus = Runtime.getRuntime().availableProcessors();
+		return Math.max(1, Math.min(cpus, rows / ROWS_PER_TASK));
+	}
+
+	/** Runs the first band on the calling thread and the others in parallel. */
+	private void invokeAll(final Runnable[] bands) {
+		final List<Future<?>> futures = new ArrayList<>(bands.length - 1);
+		for (int i = 1; i < bands.length; i++) {
+			futures.add(threadService.run(bands[i]));
+		}
+		bands[0].run();
+		for (final Future<?> future : futures) {
+			try {
+				future.get();
+			}
+			catch (final InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(exc);
+			}
+			catch (final ExecutionException exc) {
+				throw new IllegalStateException(exc.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Obtains the byte arrays backing the three channel planes of the dataset,
+	 * if it is stored in a way which allows direct access.
+	 */
+	private static boolean getBytePlanes(final Dataset dataset,
+		final byte[][] planes, final int[] offsets)
+	{
+		final Img<?> img = dataset.getImgPlus().getImg();
+		if (img instanceof PlanarAccess) {
+			final PlanarAccess<?> planar = (PlanarAccess<?>) img;
+			for (int c = 0; c < planes.length; c++) {
+				final Object plane = planar.getPlane(c);
+				if (!(plane instanceof ByteArray)) return false;
+				planes[c] = ((ByteArray) plane).getCurrentStorageArray();
+				offsets[c] = 0;
+			}
+			return true;
+		}
+		if (img instanceof ArrayImg) {
+			final Object access = ((ArrayImg<?, ?>) img).update(null);
+			if (!(access instanceof ByteArray)) return false;
+			final byte[] data = ((ByteArray) access).getCurrentStorageArray();
+			final int planeSize =
+				(int) (dataset.dimension(0) * dataset.dimension(1));
+			for (int c = 0; c < planes.length; c++) {
+				planes[c] = data;
+				offsets[c] = c * planeSize;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	// -- Helper classes --
+
+	/** Copies a band of rows straight into the backing byte arrays. */
+	private static class ArrayTask implements Runnable {
+
+		private final int[] argb;
+		private final int width, y0, y1;
+		private final byte[][] planes;
+		private final int[] offsets;
+
+		private ArrayTask(final int[] argb, final int width, final int y0,
+			final int y1, final byte[][] planes, final int[] offsets)
+		{
+			this.argb = argb;
+			this.width = width;
+			this.y0 = y0;
+			this.y1 = y1;
+			this.planes = planes;
+			this.offsets = offsets;
+		}
+
+		@Override
+		public void run() {
+			final byte[] r = planes[0], g = planes[1], b = planes[2];
+			final int end = y1 * width;
+			for (int i = y0 * width; i < end; i++) {
+				final int rgb = argb[i];
+				r[offsets[0] + i] = (byte) (rgb >> 16);
+				g[offsets[1] + i] = (byte) (rgb >> 8);
+				b[offsets[2] + i] = (byte) rgb;
+			}
+		}
+	}
+
+	/** Copies a band of rows through a {@link RandomAccess}, row by row. */
+	private static class AccessTask implements Runnable {
+
+		private final int[] argb;
+		private final int width, y0, y1;
+		private final long yOffset;
+		private final Dataset dataset;
+
+		private AccessTask(final int[] argb, final int width, final int y0,
+			final int y1, final long yOffset, final Dataset dataset)
+		{
+			this.argb = argb;
+			this.width = width;
+			this.y0 = y0;
+			this.y1 = y1;
+			this.yOffset = yOffset;
+			this.dataset = dataset;
+		}
+
+		@Override
+		public void run() {
+			final RandomAccess<? extends RealType<?>> access =
+				dataset.randomAccess();
+			for (int c = 0; c < 3; c++) {
+				final int shift = 16 - 8 * c;
+				for (int y = y0; y < y1; y++) {
+					access.setPosition(0, 0);
+					access.setPosition(yOffset + y, 1);
+					access.setPosition(c, 2);
+					final int offset = y * width;
+					for (int x = 0; x < width; x++) {
+						access.get().setReal((argb[offset + x] >> shift) & 0xff);
+						access.fwd(0);
+					}
+				}
+			}
+		}
+	}
+
+}
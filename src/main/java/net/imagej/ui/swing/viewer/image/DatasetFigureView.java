@@ -29,26 +29,32 @@
 
 package net.imagej.ui.swing.viewer.image;
 
-import java.awt.Image;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.util.List;
 
 import net.imagej.Dataset;
+import net.imagej.axis.AxisType;
 import net.imagej.display.DatasetView;
+import net.imagej.display.ImageDisplay;
 import net.imagej.display.event.DataViewUpdatedEvent;
+import net.imagej.display.event.LUTsChangedEvent;
+import net.imagej.event.DatasetUpdatedEvent;
+import net.imagej.ui.swing.viewer.image.ScreenImagePyramid.Level;
+import net.imagej.ui.swing.viewer.image.TiledImageFigure.Tile;
+import net.imagej.ui.swing.viewer.image.TiledImageFigure.TileLoader;
 
 import org.jhotdraw.draw.Drawing;
-import org.jhotdraw.draw.ImageFigure;
 import org.scijava.AbstractContextual;
 import org.scijava.event.EventHandler;
 import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
-import org.scijava.ui.awt.AWTImageTools;
+import org.scijava.thread.ThreadService;
 
 /**
  * A figure view that links an ImageJ {@link DatasetView} to a JHotDraw
- * {@link ImageFigure}.
+ * {@link TiledImageFigure}.
  * 
  * @author Curtis Rueden
  * @author Lee Kamentsky
@@ -56,8 +62,48 @@ import org.scijava.ui.awt.AWTImageTools;
 public class DatasetFigureView extends AbstractContextual implements FigureView
 {
 
+	/**
+	 * Largest plane, in pixels, which is projected whole and drawn straight
+	 * from its frame by default. Larger planes are projected tile by tile, and
+	 * only where they are visible in the viewport.
+	 */
+	public static final long ZERO_COPY_MAX_PIXELS = 4096L * 4096L;
+
+	/** Pyramid level kept for each plane shown while scrubbing. */
+	private static final int PREVIEW_LEVEL = 2;
+
+	private final SwingImageDisplayViewer displayViewer;
+	private final ImageDisplay display;
 	private final DatasetView datasetView;
-	private final ImageFigure figure;
+	private final TiledImageFigure figure;
+	private final TileProjector tileProjector;
+
+	/** Downsampled levels of the projected planes, for zoomed out display. */
+	private final ScreenImagePyramid pyramid = new ScreenImagePyramid();
+
+	/** Whether an axis slider is being dragged. */
+	private boolean scrubbing;
+
+	/**
+	 * Latest frame projected for the view, or null if the panel does not
+	 * project it, in which case its screen image is shown as is.
+	 */
+	private ScreenFrame frame;
+
+	/** Frame whose pixels the figure currently shows. */
+	private ScreenFrame shownFrame;
+
+	/** Buffer wrapping the screen image, for views shown as is. */
+	private ScreenBuffer liveBuffer;
+
+	/**
+	 * Version of the color tables and data from which the screen image was
+	 * projected. Cached tiles of an older version are never reused.
+	 */
+	private long lutVersion;
+
+	@Parameter
+	private ThreadService threadService;
 
 	@Parameter
 	private LogService log;
@@ -66,10 +112,13 @@ public class DatasetFigureView extends AbstractContextual implements FigureView
 		final DatasetView datasetView)
 	{
 		setContext(datasetView.getContext());
+		this.displayViewer = displayViewer;
+		this.display = displayViewer.getDisplay();
 		this.datasetView = datasetView;
 		final JHotDrawImageCanvas canvas = displayViewer.getCanvas();
 		final Drawing drawing = canvas.getDrawing();
-		figure = new ImageFigure();
+		figure = new TiledImageFigure();
+		figure.setPyramid(pyramid);
 		figure.setSelectable(false);
 		figure.setTransformable(false);
 		final Dataset dataset = datasetView.getData();
@@ -79,6 +128,16 @@ public class DatasetFigureView extends AbstractContextual implements FigureView
 		final double maxY = dataset.getImgPlus().realMax(1);
 		figure.setBounds(new Point2D.Double(minX, minY), new Point2D.Double(maxX,
 			maxY));
+		figure.setZeroCopy(dataset.dimension(0) *
+			dataset.dimension(1) <= ZERO_COPY_MAX_PIXELS);
+		tileProjector = new TileProjector(datasetView);
+		figure.setTileLoader(new TileLoader() {
+
+			@Override
+			public void loadTile(final Tile tile) {
+				loadTileLater(tile);
+			}
+		});
 		drawing.add(figure);
 	}
 
@@ -87,20 +146,116 @@ public class DatasetFigureView extends AbstractContextual implements FigureView
 		if (event.getView() == datasetView) update();
 	}
 
+	@EventHandler
+	protected void onEvent(final LUTsChangedEvent event) {
+		if (event.getView() != datasetView) return;
+		lutVersion++;
+		pyramid.invalidateAll();
+	}
+
+	@EventHandler
+	protected void onEvent(final DatasetUpdatedEvent event) {
+		if (event.getObject() != datasetView.getData()) return;
+		lutVersion++;
+		pyramid.invalidateAll();
+	}
+
+	// -- DatasetFigureView methods --
+
+	/**
+	 * Sets the region of the image which is visible in the canvas viewport, in
+	 * data coordinates.
+	 */
+	public void setViewport(final Rectangle2D.Double viewport) {
+		figure.setViewport(viewport);
+	}
+
+	/**
+	 * Sets whether the figure wraps the screen image's pixel array directly, so
+	 * that an update merely repaints the figure rather than copying pixels.
+	 */
+	public void setZeroCopy(final boolean zeroCopy) {
+		figure.setZeroCopy(zeroCopy);
+	}
+
+	/**
+	 * Sets the latest frame projected for the view, to be shown by the next
+	 * {@link #update()}.
+	 */
+	public void setFrame(final ScreenFrame frame) {
+		this.frame = frame;
+	}
+
+	/**
+	 * Sets whether the display is being scrubbed through its planes. While it
+	 * is, a coarse level of every shown plane is kept for previews.
+	 */
+	public void setScrubbing(final boolean scrubbing) {
+		this.scrubbing = scrubbing;
+	}
+
+	/**
+	 * Shows a coarse preview of the plane at the given axis position, if one
+	 * was kept from an earlier visit, until that plane is rendered.
+	 */
+	public void showPreview(final AxisType axis, final long value) {
+		final int d = datasetView.getData().dimensionIndex(axis) - 2;
+		if (d < 0) return;
+		// NB: Start from the plane actually shown, as the pyramid is keyed by
+		// projected positions, not by where the display has moved on to.
+		long[] position = figure.getPlanePosition();
+		if (position.length != datasetView.getData().numDimensions() - 2) {
+			position = getPlanePosition();
+		}
+		position[d] = value;
+		figure.setPreview(pyramid.getCachedLevel(position, PREVIEW_LEVEL),
+			position);
+	}
+
+	/** Gets the pyramid of downsampled levels of the projected planes. */
+	public ScreenImagePyramid getPyramid() {
+		return pyramid;
+	}
+
+	// -- FigureView methods --
+
 	@Override
 	public void update() {
+		// NB: Only the active view is projected by the panel; any other view
+		// shows whatever its projector last mapped into its screen image.
+		final ScreenFrame newFrame =
+			frame != null ? frame : ScreenFrame.wrap(datasetView, liveBuffer);
+		if (newFrame == null || newFrame == shownFrame) return;
+		if (newFrame.isLive()) liveBuffer = newFrame.getBuffer();
 		log.debug("Updating image figure: " + this);
-		final Image image = datasetView.getScreenImage().image();
-		final BufferedImage bufImage = AWTImageTools.makeBuffered(image);
-		figure.setBounds(new Rectangle2D.Double(0, 0, bufImage.getWidth(),
-			bufImage.getHeight()));
-		figure.setBufferedImage(bufImage);
-	}
 
-	// -- FigureView methods --
+		// NB: The frame carries the position it was actually projected at, which
+		// the display may have moved on from meanwhile.
+		final long[] position = newFrame.getPosition();
+
+		// NB: Cached tiles are stale only if the frame was projected with other
+		// color tables, display ranges or composite mode. Tiles of other planes
+		// are told apart by their position, and data edits by the event below.
+		// A live frame may have been mapped again in place at any time.
+		if (newFrame.isLive() || shownFrame != null &&
+			!newFrame.hasSameColors(shownFrame))
+		{
+			lutVersion++;
+		}
+
+		if (newFrame.isTiled()) {
+			figure.setTiledPlane(newFrame.getWidth(), newFrame.getHeight(),
+				position, lutVersion);
+		}
+		else figure.setPixels(newFrame.getBuffer(), position, lutVersion);
+		shownFrame = newFrame;
+		if (scrubbing && !newFrame.isLive() && !newFrame.isTiled()) {
+			buildPreview(newFrame, lutVersion);
+		}
+	}
 
 	@Override
-	public ImageFigure getFigure() {
+	public TiledImageFigure getFigure() {
 		return figure;
 	}
 
@@ -111,7 +266,75 @@ public class DatasetFigureView extends AbstractContextual implements FigureView
 
 	@Override
 	public void dispose() {
+		getFigure().flushTiles();
+		pyramid.invalidateAll();
 		getFigure().requestRemove();
 	}
 
+	// -- Helper methods --
+
+	/** Projects a tile on a worker thread, then hands it to the figure. */
+	private void loadTileLater(final Tile tile) {
+		threadService.run(new Runnable() {
+
+			@Override
+			public void run() {
+				BufferedImage image = null;
+				try {
+					image = tileProjector.project(tile.getPosition(), tile.getLevel(),
+						tile.getX(), tile.getY(), tile.getWidth(), tile.getHeight())
+						.getImage();
+				}
+				catch (final RuntimeException exc) {
+					log.error("Error projecting tile of " + datasetView.getData(), exc);
+				}
+				final BufferedImage result = image;
+				threadService.queue(new Runnable() {
+
+					@Override
+					public void run() {
+						figure.putTile(tile, result);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Builds the preview level of the given frame on a worker thread, keeping
+	 * the frame's buffer pinned meanwhile, then adds it to the pyramid.
+	 */
+	private void buildPreview(final ScreenFrame newFrame, final long version) {
+		final long[] position = newFrame.getPosition();
+		if (pyramid.getCachedLevel(position, PREVIEW_LEVEL) != null) return;
+		final SwingImageDisplayPanel panel = displayViewer.getPanel();
+		if (panel == null) return;
+		panel.pinFrame(newFrame);
+		threadService.run(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					final List<Level> levels = ScreenImagePyramid.buildLevels(newFrame
+						.getBuffer(), PREVIEW_LEVEL);
+					pyramid.putLevels(position, version, levels);
+				}
+				finally {
+					panel.releaseFrame(newFrame);
+				}
+			}
+		});
+	}
+
+	/** Gets the position of the displayed plane along the non-XY axes. */
+	private long[] getPlanePosition() {
+		final Dataset dataset = datasetView.getData();
+		final long[] position = new long[Math.max(0, dataset.numDimensions() - 2)];
+		for (int i = 0; i < position.length; i++) {
+			final AxisType axisType = dataset.axis(i + 2).type();
+			position[i] = display.getLongPosition(axisType);
+		}
+		return position;
+	}
+
 }
@@ -36,21 +36,34 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.AdjustmentEvent;
 import java.awt.event.AdjustmentListener;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JViewport;
+import javax.swing.Timer;
 
 import net.imagej.Dataset;
 import net.imagej.DatasetService;
+import net.imagej.ImgPlus;
 import net.imagej.axis.Axes;
 import net.imagej.axis.AxisType;
 import net.imagej.display.DataView;
@@ -61,18 +74,21 @@ import net.imagej.display.ImageDisplayService;
 import net.imagej.display.OverlayView;
 import net.imagej.display.event.DataViewDeselectedEvent;
 import net.imagej.display.event.DataViewSelectedEvent;
+import net.imagej.display.event.DataViewUpdatedEvent;
 import net.imagej.display.event.MouseCursorEvent;
 import net.imagej.display.event.PanZoomEvent;
+import net.imagej.event.OverlayRestructuredEvent;
+import net.imagej.event.OverlayUpdatedEvent;
+import net.imagej.overlay.Overlay;
 import net.imagej.ui.swing.overlay.FigureCreatedEvent;
 import net.imagej.ui.swing.overlay.JHotDrawAdapter;
 import net.imagej.ui.swing.overlay.JHotDrawService;
 import net.imagej.ui.swing.overlay.JHotDrawTool;
+import net.imagej.ui.swing.overlay.ThresholdFigure;
 import net.imagej.ui.swing.overlay.ToolDelegator;
-import net.imglib2.RandomAccess;
-import net.imglib2.display.screenimage.awt.ARGBScreenImage;
-import net.imglib2.type.numeric.RealType;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
 
-import org.jhotdraw.draw.DefaultDrawing;
 import org.jhotdraw.draw.DefaultDrawingEditor;
 import org.jhotdraw.draw.DefaultDrawingView;
 import org.jhotdraw.draw.Drawing;
@@ -111,6 +127,12 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 	ComponentListener, FigureSelectionListener, Disposable
 {
 
+	/** Number of pixels above which {@link #capture()} renders in strips. */
+	public static final long STREAMING_CAPTURE_PIXELS = 64L * 1024 * 1024;
+
+	/** Approximate number of pixels rendered per strip when streaming. */
+	private static final int STRIP_PIXELS = 4 * 1024 * 1024;
+
 	private final SwingImageDisplayViewer displayViewer;
 
 	private final Drawing drawing;
@@ -118,12 +140,60 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 	private final DrawingEditor drawingEditor;
 	private final ToolDelegator toolDelegator;
 
+	/** Creation tools built so far for this canvas, by adapter. */
+	private final Map<JHotDrawAdapter<?>, JHotDrawTool> creationTools =
+		new IdentityHashMap<>();
+
 	private final JScrollPane scrollPane;
 
 	private final List<FigureView> figureViews = new ArrayList<>();
 
+	/** Index of {@link #figureViews} by data view. */
+	private final Map<DataView, FigureView> figureViewsByData =
+		new IdentityHashMap<>();
+
+	/** Index of {@link #figureViews} by the data object of their view. */
+	private final Map<Object, FigureView> figureViewsByObject =
+		new IdentityHashMap<>();
+
+	/** Overlay figure views grouped by plane, for cheap plane changes. */
+	private final OverlayPlaneIndex planeIndex = new OverlayPlaneIndex();
+
+	/** Overlay figure views which are new or changed since the last update. */
+	private final Set<OverlayFigureView> changedViews = Collections
+		.synchronizedSet(Collections
+			.newSetFromMap(new IdentityHashMap<OverlayFigureView, Boolean>()));
+
 	private final List<EventSubscriber<?>> subscribers;
 
+	/** Delay, in milliseconds, over which figure edits are coalesced. */
+	private static final int OVERLAY_SYNC_DELAY = 16;
+
+	/** Overlay figure views whose figure edits await the sync timer. */
+	private final Set<OverlayFigureView> pendingSyncs = Collections
+		.newSetFromMap(new IdentityHashMap<OverlayFigureView, Boolean>());
+
+	/** Expensive overlay figure views whose edits await the mouse release. */
+	private final Set<OverlayFigureView> deferredSyncs = Collections
+		.newSetFromMap(new IdentityHashMap<OverlayFigureView, Boolean>());
+
+	/** Pushes coalesced figure edits back into their overlays. */
+	private final Timer overlaySyncTimer;
+
+	/** Whether a mouse button is held down over the drawing view. */
+	private boolean mouseDown;
+
+	/** Nesting depth of batched overlay changes in progress. */
+	private int updatesSuspended;
+
+	/** Whether a display update was requested during a batch. */
+	private boolean updatePending;
+
+	/** Whether an axis slider of the display is being dragged. */
+	private boolean scrubbing;
+
+	private final CaptureEngine captureEngine;
+
 	@Parameter
 	private ToolService toolService;
 
@@ -148,8 +218,9 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 	public JHotDrawImageCanvas(final SwingImageDisplayViewer displayViewer) {
 		displayViewer.getDisplay().getContext().inject(this);
 		this.displayViewer = displayViewer;
+		captureEngine = new CaptureEngine(threadService);
 
-		drawing = new DefaultDrawing(); // or QuadTreeDrawing?
+		drawing = new SpatialDrawing();
 
 		drawingView = new DefaultDrawingView() {
 
@@ -193,6 +264,28 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 
 		drawingView.addFigureSelectionListener(this);
 		drawingView.addComponentListener(this);
+
+		overlaySyncTimer = new Timer(OVERLAY_SYNC_DELAY, new ActionListener() {
+
+			@Override
+			public void actionPerformed(final ActionEvent e) {
+				syncOverlays(pendingSyncs);
+			}
+		});
+		overlaySyncTimer.setRepeats(false);
+		drawingView.addMouseListener(new MouseAdapter() {
+
+			@Override
+			public void mousePressed(final MouseEvent e) {
+				mouseDown = true;
+			}
+
+			@Override
+			public void mouseReleased(final MouseEvent e) {
+				mouseDown = false;
+				syncOverlays(deferredSyncs);
+			}
+		});
 	}
 
 	// -- JHotDrawImageCanvas methods --
@@ -209,6 +302,76 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 		return drawingEditor;
 	}
 
+	/**
+	 * Adds many overlays to the display at once. All figures are built first,
+	 * then added to the drawing in a single call, and the display is updated
+	 * only once at the end.
+	 * 
+	 * @param overlays the overlays to add
+	 * @return the views created for the overlays
+	 */
+	public List<OverlayView> attachOverlays(
+		final Collection<? extends Overlay> overlays)
+	{
+		final ImageDisplay display = getDisplay();
+		final List<OverlayView> views = new ArrayList<>(overlays.size());
+		for (final Overlay overlay : overlays) {
+			final DataView view = imageDisplayService.createDataView(overlay);
+			if (view instanceof OverlayView) views.add((OverlayView) view);
+			else if (view != null) view.dispose();
+		}
+		suspendDisplayUpdates();
+		try {
+			display.addAll(views);
+			final List<Figure> figures = new ArrayList<>(views.size());
+			for (final OverlayView view : views) {
+				final OverlayFigureView figureView =
+					new OverlayFigureView(displayViewer, view, null, false);
+				addFigureView(figureView);
+				if (display.isVisible(view)) figures.add(figureView.getFigure());
+			}
+			drawing.addAll(figures);
+			requestDisplayUpdate();
+		}
+		finally {
+			resumeDisplayUpdates();
+		}
+		return views;
+	}
+
+	/**
+	 * Removes many overlay views from the display at once, updating the display
+	 * only once at the end.
+	 * 
+	 * @param views the overlay views to remove
+	 */
+	public void detachOverlays(final Collection<? extends OverlayView> views) {
+		final ImageDisplay display = getDisplay();
+		final Set<DataView> removed =
+			Collections.newSetFromMap(new IdentityHashMap<DataView, Boolean>());
+		final List<Figure> figures = new ArrayList<>(views.size());
+		for (final OverlayView view : views) {
+			if (!removed.add(view)) continue;
+			final FigureView figureView = getFigureView(view);
+			if (figureView instanceof OverlayFigureView) {
+				((OverlayFigureView) figureView).detach();
+				figures.add(figureView.getFigure());
+			}
+		}
+		suspendDisplayUpdates();
+		try {
+			drawing.removeAll(figures);
+			display.removeAll(removed);
+			for (final DataView view : removed) {
+				view.dispose();
+			}
+			requestDisplayUpdate();
+		}
+		finally {
+			resumeDisplayUpdates();
+		}
+	}
+
 	public void addEventDispatcher(final AWTInputEventDispatcher dispatcher) {
 		dispatcher.register(drawingView, true, true);
 	}
@@ -220,7 +383,11 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 
 	/**
 	 * Captures the current view of data displayed in the canvas, including all
-	 * JHotDraw embellishments.
+	 * JHotDraw embellishments. Views larger than
+	 * {@link #STREAMING_CAPTURE_PIXELS}, or too large to be projected whole,
+	 * are rendered strip by strip, as in
+	 * {@link #captureStreaming(int, CaptureSink)}, into a cell image whose cells
+	 * match the strips.
 	 */
 	public Dataset capture() {
 		final ImageDisplay display = getDisplay();
@@ -229,46 +396,55 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 			imageDisplayService.getActiveDatasetView(display);
 		if (datasetView == null) return null;
 
-		final ARGBScreenImage screenImage = datasetView.getScreenImage();
-		final Image pixels = screenImage.image();
-
-		final int w = pixels.getWidth(null);
-		final int h = pixels.getHeight(null);
+		// NB: Keep the frame's buffer from being reused while it is captured.
+		final ScreenFrame frame = pinFrame(datasetView);
+		try {
+			if (frame == null || !frame.isTiled()) {
+				final Image pixels = getFrameImage(datasetView, frame);
+				final int w = pixels.getWidth(null);
+				final int h = pixels.getHeight(null);
+				if ((long) w * h <= STREAMING_CAPTURE_PIXELS) {
+					return capture(datasetView, pixels);
+				}
+			}
+			final DatasetSink sink = new DatasetSink();
+			streamStrips(datasetView, frame, 0, sink);
+			return sink.dataset;
+		}
+		finally {
+			releaseFrame(frame);
+		}
+	}
 
-		// draw the backdrop image info
-		final BufferedImage outputImage =
-			new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-		final Graphics2D outputGraphics = outputImage.createGraphics();
-		outputGraphics.drawImage(pixels, 0, 0, null);
+	/**
+	 * Captures the current view of data displayed in the canvas, including all
+	 * JHotDraw embellishments, one horizontal strip at a time. Each strip is
+	 * rendered into a reusable buffer and handed to the sink, so that capturing
+	 * never needs more memory than one strip. Planes too large to be projected
+	 * whole are projected strip by strip as well.
+	 * 
+	 * @param stripHeight number of rows to render at a time, or 0 for a default
+	 *          height
+	 * @param sink receiver of the strips
+	 * @return false if there was no view to capture
+	 */
+	public boolean captureStreaming(final int stripHeight,
+		final CaptureSink sink)
+	{
+		final ImageDisplay display = getDisplay();
+		if (display == null) return false;
+		final DatasetView datasetView =
+			imageDisplayService.getActiveDatasetView(display);
+		if (datasetView == null) return false;
 
-		// draw the overlay info
-		for (final FigureView view : figureViews) {
-			view.getFigure().draw(outputGraphics);
+		final ScreenFrame frame = pinFrame(datasetView);
+		try {
+			streamStrips(datasetView, frame, stripHeight, sink);
+			return true;
 		}
-
-		// create a dataset that has view data with overlay info on top
-		final Dataset dataset =
-			datasetService.create(new long[] { w, h, 3 }, "Captured view",
-				new AxisType[] { Axes.X, Axes.Y, Axes.CHANNEL }, 8, false, false);
-		dataset.setRGBMerged(true);
-		final RandomAccess<? extends RealType<?>> accessor = dataset.randomAccess();
-		for (int x = 0; x < w; x++) {
-			accessor.setPosition(x, 0);
-			for (int y = 0; y < h; y++) {
-				accessor.setPosition(y, 1);
-				final int rgb = outputImage.getRGB(x, y);
-				final int r = (rgb >> 16) & 0xff;
-				final int g = (rgb >> 8) & 0xff;
-				final int b = (rgb >> 0) & 0xff;
-				accessor.setPosition(0, 2);
-				accessor.get().setReal(r);
-				accessor.setPosition(1, 2);
-				accessor.get().setReal(g);
-				accessor.setPosition(2, 2);
-				accessor.get().setReal(b);
-			}
+		finally {
+			releaseFrame(frame);
 		}
-		return dataset;
 	}
 
 	// -- AdjustmentListener methods --
@@ -352,6 +528,26 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 		}
 	}
 
+	@EventHandler
+	protected void onEvent(final DataViewUpdatedEvent event) {
+		// NB: Every display update broadcasts this for every view, so it must not
+		// resync figures; it only matters if the view moved to another plane.
+		final FigureView figureView = getFigureView(event.getView());
+		if (figureView instanceof OverlayFigureView) {
+			planeIndex.reindexIfMoved((OverlayFigureView) figureView);
+		}
+	}
+
+	@EventHandler
+	protected void onEvent(final OverlayUpdatedEvent event) {
+		markDirty(figureViewsByObject.get(event.getObject()));
+	}
+
+	@EventHandler
+	protected void onEvent(final OverlayRestructuredEvent event) {
+		markDirty(figureViewsByObject.get(event.getObject()));
+	}
+
 	@EventHandler
 	protected void onEvent(final ToolActivatedEvent event) {
 		final Tool iTool = event.getTool();
@@ -405,20 +601,64 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 		}
 		final OverlayFigureView figureView =
 			new OverlayFigureView(displayViewer, overlay, event.getFigure());
-		figureViews.add(figureView);
+		addFigureView(figureView);
 		display.add(overlay);
-		display.update();
+		requestDisplayUpdate();
+	}
+
+	/**
+	 * Sets whether the display is being scrubbed through its planes, e.g. by
+	 * dragging an axis slider.
+	 */
+	public void setScrubbing(final boolean scrubbing) {
+		this.scrubbing = scrubbing;
+		for (final FigureView figureView : figureViews) {
+			if (figureView instanceof DatasetFigureView) {
+				((DatasetFigureView) figureView).setScrubbing(scrubbing);
+			}
+		}
+	}
+
+	/**
+	 * Shows a cached low resolution preview of the plane at the given axis
+	 * position, where available, until that plane is rendered.
+	 */
+	public void showPreview(final AxisType axis, final long value) {
+		for (final FigureView figureView : figureViews) {
+			if (figureView instanceof DatasetFigureView) {
+				((DatasetFigureView) figureView).showPreview(axis, value);
+			}
+		}
 	}
 
 	// -- Internal methods --
 
+	/**
+	 * Shows a frame projected off the EDT, then updates the figures.
+	 * 
+	 * @return whether a figure view took the frame; if so, it no longer uses
+	 *         the previous frame of the same view
+	 */
+	boolean showFrame(final ScreenFrame frame) {
+		final FigureView figureView = getFigureView(frame.getView());
+		if (!(figureView instanceof DatasetFigureView)) return false;
+		((DatasetFigureView) figureView).setFrame(frame);
+		update();
+		return true;
+	}
+
 	void rebuild() {
+		int matched = 0;
 		for (final DataView dataView : getDisplay()) {
 			FigureView figureView = getFigureView(dataView);
 			if (figureView == null) {
 				if (dataView instanceof DatasetView) {
-					figureView =
+					final DatasetFigureView datasetFigureView =
 						new DatasetFigureView(this.displayViewer, (DatasetView) dataView);
+					datasetFigureView.setScrubbing(scrubbing);
+					final ScreenFrame frame = getLatestFrame(dataView);
+					if (frame != null) datasetFigureView.setFrame(frame);
+					figureView = datasetFigureView;
 				}
 				else if (dataView instanceof OverlayView) {
 					figureView =
@@ -429,39 +669,240 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 						dataView.getClass().getName());
 					continue;
 				}
-				figureViews.add(figureView);
+				addFigureView(figureView);
 			}
+			matched++;
 		}
-		int idx = 0;
-		while (idx < figureViews.size()) {
-			final FigureView figureView = figureViews.get(idx);
-			if (!getDisplay().contains(figureView.getDataView())) {
-				figureViews.remove(idx);
-				figureView.dispose();
+		if (matched == figureViews.size()) return; // no stale views to remove
+
+		// reconcile in a single pass, compacting the surviving views in place
+		final Map<DataView, Boolean> current = new IdentityHashMap<>();
+		for (final DataView dataView : getDisplay()) {
+			current.put(dataView, Boolean.TRUE);
+		}
+		int kept = 0;
+		for (int i = 0; i < figureViews.size(); i++) {
+			final FigureView figureView = figureViews.get(i);
+			if (current.containsKey(figureView.getDataView())) {
+				figureViews.set(kept++, figureView);
 			}
 			else {
-				idx++;
+				figureViewsByData.remove(figureView.getDataView());
+				figureViewsByObject.remove(figureView.getDataView().getData());
+				if (figureView instanceof OverlayFigureView) {
+					changedViews.remove(figureView);
+					pendingSyncs.remove(figureView);
+					deferredSyncs.remove(figureView);
+					planeIndex.remove((OverlayFigureView) figureView);
+				}
+				figureView.dispose();
 			}
 		}
+		figureViews.subList(kept, figureViews.size()).clear();
+	}
+
+	/**
+	 * Schedules the edits of a view's figure to be pushed into its overlay. Edits
+	 * are coalesced to at most one sync per frame, or to a single sync on mouse
+	 * release for expensive figures while they are being dragged.
+	 */
+	void requestOverlaySync(final OverlayFigureView figureView) {
+		if (mouseDown && figureView.isExpensive()) {
+			deferredSyncs.add(figureView);
+			return;
+		}
+		pendingSyncs.add(figureView);
+		if (!overlaySyncTimer.isRunning()) overlaySyncTimer.start();
+	}
+
+	/** Drops any pending overlay sync of a figure view being disposed. */
+	void cancelOverlaySync(final OverlayFigureView figureView) {
+		pendingSyncs.remove(figureView);
+		deferredSyncs.remove(figureView);
+	}
+
+	/**
+	 * Updates the display, or defers the update until the current batch of
+	 * overlay changes is complete.
+	 */
+	void requestDisplayUpdate() {
+		if (updatesSuspended > 0) updatePending = true;
+		else getDisplay().update();
 	}
 
 	void update() {
+		final List<OverlayFigureView> changed;
+		synchronized (changedViews) {
+			changed = new ArrayList<>(changedViews);
+			changedViews.clear();
+		}
 		for (final FigureView figureView : figureViews) {
+			if (figureView instanceof OverlayFigureView) continue;
 			figureView.update();
 		}
+		// NB: Only new or changed overlays are resynced; the plane index then
+		// toggles just the figures entering or leaving the current plane.
+		for (final OverlayFigureView figureView : changed) {
+			if (getFigureView(figureView.getDataView()) != figureView) continue;
+			figureView.update();
+			planeIndex.reindex(figureView);
+		}
+		planeIndex.update(getDisplay());
 	}
 
 	// -- Helper methods --
 
+	private Dataset capture(final DatasetView datasetView, final Image pixels) {
+		final int w = pixels.getWidth(null);
+		final int h = pixels.getHeight(null);
+
+		// draw the backdrop image and overlay info
+		final BufferedImage outputImage =
+			new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D outputGraphics = outputImage.createGraphics();
+		drawView(outputGraphics, datasetView, pixels, 0);
+		outputGraphics.dispose();
+
+		// create a dataset that has view data with overlay info on top
+		final Dataset dataset =
+			datasetService.create(new long[] { w, h, 3 }, "Captured view",
+				new AxisType[] { Axes.X, Axes.Y, Axes.CHANNEL }, 8, false, false);
+		dataset.setRGBMerged(true);
+		final int[] argb =
+			((DataBufferInt) outputImage.getRaster().getDataBuffer()).getData();
+		captureEngine.copyARGB(argb, w, h, 0, dataset);
+		return dataset;
+	}
+
+	/**
+	 * Renders the view strip by strip into the sink. The backdrop comes from the
+	 * given frame, or, for a tiled frame, is projected a strip at a time.
+	 */
+	private void streamStrips(final DatasetView datasetView,
+		final ScreenFrame frame, final int stripHeight, final CaptureSink sink)
+	{
+		final boolean tiled = frame != null && frame.isTiled();
+		final Image pixels = tiled ? null : getFrameImage(datasetView, frame);
+		final int w = tiled ? frame.getWidth() : pixels.getWidth(null);
+		final int h = tiled ? frame.getHeight() : pixels.getHeight(null);
+		final int rows = Math.max(1, Math.min(stripHeight > 0 ? stripHeight
+			: STRIP_PIXELS / w, h));
+		final TileProjector projector =
+			tiled ? new TileProjector(datasetView) : null;
+		sink.start(w, h);
+
+		final BufferedImage strip =
+			new BufferedImage(w, rows, BufferedImage.TYPE_INT_ARGB);
+		final int[] argb =
+			((DataBufferInt) strip.getRaster().getDataBuffer()).getData();
+		for (int y = 0; y < h; y += rows) {
+			final int stripRows = Math.min(rows, h - y);
+			Arrays.fill(argb, 0);
+			final Graphics2D g = strip.createGraphics();
+			g.clipRect(0, 0, w, stripRows);
+			g.translate(0, -y);
+			if (tiled) {
+				final Image backdrop = projector.project(frame.getPosition(), 0, 0, y,
+					w, stripRows).getImage();
+				drawView(g, datasetView, backdrop, y);
+			}
+			else drawView(g, datasetView, pixels, 0);
+			g.dispose();
+			sink.strip(argb, w, stripRows, y);
+		}
+	}
+
+	/**
+	 * Draws the backdrop image, starting at the given row, then the overlays on
+	 * top of it.
+	 */
+	private void drawView(final Graphics2D g, final DatasetView datasetView,
+		final Image pixels, final int y)
+	{
+		g.drawImage(pixels, 0, y, null);
+		for (final FigureView view : figureViews) {
+			if (view.getDataView() == datasetView) continue; // already drawn
+			view.getFigure().draw(g);
+		}
+	}
+
+	/**
+	 * Gets the given frame as an image, falling back to the view's own screen
+	 * image, which its projector keeps current, if there is no frame.
+	 */
+	private Image getFrameImage(final DatasetView datasetView,
+		final ScreenFrame frame)
+	{
+		if (frame != null && !frame.isTiled()) return frame.getImage();
+		return datasetView.getScreenImage().image();
+	}
+
+	/**
+	 * Pins the most recently projected frame of the given view, so that it is
+	 * not overwritten while being read off the EDT.
+	 */
+	private ScreenFrame pinFrame(final DatasetView datasetView) {
+		final SwingImageDisplayPanel panel = displayViewer.getPanel();
+		return panel == null ? null : panel.pinLatestFrame(datasetView);
+	}
+
+	private void releaseFrame(final ScreenFrame frame) {
+		final SwingImageDisplayPanel panel = displayViewer.getPanel();
+		if (panel != null) panel.releaseFrame(frame);
+	}
+
+	/** Gets the most recently projected frame of the given view, if any. */
+	private ScreenFrame getLatestFrame(final DataView dataView) {
+		final SwingImageDisplayPanel panel = displayViewer.getPanel();
+		final ScreenFrame frame = panel == null ? null : panel.getLatestFrame();
+		return frame != null && frame.getView() == dataView ? frame : null;
+	}
+
 	private ImageDisplay getDisplay() {
 		return displayViewer.getDisplay();
 	}
 
-	private FigureView getFigureView(final DataView dataView) {
-		for (final FigureView figureView : figureViews) {
-			if (figureView.getDataView() == dataView) return figureView;
+	/** Gets the figure view of the given data view, or null if none. */
+	FigureView getFigureView(final DataView dataView) {
+		return figureViewsByData.get(dataView);
+	}
+
+	private void syncOverlays(final Set<OverlayFigureView> views) {
+		if (views.isEmpty()) return;
+		final List<OverlayFigureView> toSync = new ArrayList<>(views);
+		views.clear();
+		for (final OverlayFigureView figureView : toSync) {
+			// NB: Skip views which left the canvas since the sync was requested.
+			if (getFigureView(figureView.getDataView()) != figureView) continue;
+			figureView.syncOverlay();
+		}
+	}
+
+	private void suspendDisplayUpdates() {
+		updatesSuspended++;
+	}
+
+	private void resumeDisplayUpdates() {
+		if (--updatesSuspended > 0 || !updatePending) return;
+		updatePending = false;
+		getDisplay().update();
+	}
+
+	/** Flags an overlay's figure for resync on the next {@link #update()}. */
+	private void markDirty(final FigureView figureView) {
+		if (figureView instanceof OverlayFigureView) {
+			((OverlayFigureView) figureView).markDirty();
+			changedViews.add((OverlayFigureView) figureView);
+		}
+	}
+
+	private void addFigureView(final FigureView figureView) {
+		figureViews.add(figureView);
+		figureViewsByData.put(figureView.getDataView(), figureView);
+		figureViewsByObject.put(figureView.getDataView().getData(), figureView);
+		if (figureView instanceof OverlayFigureView) {
+			changedViews.add((OverlayFigureView) figureView);
 		}
-		return null;
 	}
 
 	/** Updates the {@link ImageCanvas} to match the UI. */
@@ -500,7 +941,10 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 			uiOffset.x != canvasOffset.x || uiOffset.y != canvasOffset.y;
 		final boolean zoomChanged = uiZoom != canvasZoom;
 
-		if (!sizeChanged && !offsetChanged && !zoomChanged) return;
+		if (!sizeChanged && !offsetChanged && !zoomChanged) {
+			syncViewport();
+			return;
+		}
 
 		if (log.isDebug()) {
 			log.debug(getClass().getSimpleName() + " " +
@@ -544,6 +988,23 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 
 			if (zoomChanged) maybeResizeWindow();
 		}
+
+		// NB: Only now does the UI reflect the new zoom and pan position.
+		syncViewport();
+	}
+
+	/** Restricts image and threshold rendering to the visible region. */
+	private void syncViewport() {
+		final Rectangle2D.Double visibleRegion =
+			drawingView.viewToDrawing(scrollPane.getViewport().getViewRect());
+		for (final FigureView figureView : figureViews) {
+			if (figureView instanceof DatasetFigureView) {
+				((DatasetFigureView) figureView).setViewport(visibleRegion);
+			}
+			else if (figureView.getFigure() instanceof ThresholdFigure) {
+				((ThresholdFigure) figureView.getFigure()).setViewport(visibleRegion);
+			}
+		}
 	}
 
 	private void maybeResizeWindow() {
@@ -564,7 +1025,13 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 	private void activateTool(final Tool tool) {
 		final JHotDrawAdapter<?> adapter = jHotDrawService.getAdapter(tool);
 		if (adapter != null) {
-			final JHotDrawTool creationTool = adapter.getCreationTool(getDisplay());
+			// NB: Tools are bound to this canvas's display, so they can be reused
+			// each time the same tool is picked again.
+			JHotDrawTool creationTool = creationTools.get(adapter);
+			if (creationTool == null) {
+				creationTool = adapter.getCreationTool(getDisplay());
+				creationTools.put(adapter, creationTool);
+			}
 			toolDelegator.setCreationTool(creationTool);
 			toolDelegator.setSelection(true);
 		}
@@ -586,6 +1053,45 @@ public class JHotDrawImageCanvas extends JPanel implements AdjustmentListener,
 	@Override
 	public void dispose() {
 		figureViews.clear();
+		figureViewsByData.clear();
+		figureViewsByObject.clear();
+		changedViews.clear();
+		planeIndex.clear();
+		overlaySyncTimer.stop();
+		pendingSyncs.clear();
+		deferredSyncs.clear();
+		toolDelegator.setCreationTool(null);
+		creationTools.clear();
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Collects a streamed capture into a dataset whose cells line up with the
+	 * strips.
+	 */
+	private class DatasetSink implements CaptureSink {
+
+		private Dataset dataset;
+
+		@Override
+		public void start(final int width, final int height) {
+			final int rows = Math.max(1, Math.min(STRIP_PIXELS / width, height));
+			final CellImgFactory<UnsignedByteType> factory =
+				new CellImgFactory<>(new UnsignedByteType(), width, rows, 1);
+			final ImgPlus<UnsignedByteType> imgPlus =
+				new ImgPlus<>(factory.create(width, height, 3), "Captured view",
+					new AxisType[] { Axes.X, Axes.Y, Axes.CHANNEL });
+			dataset = datasetService.create(imgPlus);
+			dataset.setRGBMerged(true);
+		}
+
+		@Override
+		public void strip(final int[] argb, final int width, final int rows,
+			final int y)
+		{
+			captureEngine.copyARGB(argb, width, rows, y, dataset);
+		}
 	}
 
 }
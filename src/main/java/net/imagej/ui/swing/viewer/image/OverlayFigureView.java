@@ -32,9 +32,11 @@ package net.imagej.ui.swing.viewer.image;
 import net.imagej.display.DataView;
 import net.imagej.display.ImageDisplay;
 import net.imagej.display.OverlayView;
+import net.imagej.ui.swing.overlay.GeneralPathFigure;
 import net.imagej.ui.swing.overlay.JHotDrawAdapter;
 import net.imagej.ui.swing.overlay.JHotDrawService;
 
+import org.jhotdraw.draw.BezierFigure;
 import org.jhotdraw.draw.Drawing;
 import org.jhotdraw.draw.Figure;
 import org.jhotdraw.draw.event.FigureAdapter;
@@ -50,9 +52,13 @@ import org.scijava.plugin.Parameter;
  * @author Curtis Rueden
  * @author Lee Kamentsky
  */
-public class OverlayFigureView extends AbstractContextual implements FigureView
+public class OverlayFigureView extends AbstractContextual implements
+	FigureView, OverlayPlaneIndex.Member
 {
 
+	/** Node count above which a figure's overlay is only synced on release. */
+	private static final int EXPENSIVE_NODE_COUNT = 256;
+
 	private final SwingImageDisplayViewer displayViewer;
 	private final OverlayView overlayView;
 
@@ -68,6 +74,18 @@ public class OverlayFigureView extends AbstractContextual implements FigureView
 
 	private boolean updatingOverlay = false;
 
+	/** Whether the figure is currently part of the drawing. */
+	private boolean shown = false;
+
+	/** Set when the view is being removed as part of a batch. */
+	private boolean detached = false;
+
+	/** Whether the overlay changed since the figure was last synced to it. */
+	private volatile boolean dirty;
+
+	/** Whether the figure was edited since the overlay was last synced to it. */
+	private boolean overlayDirty;
+
 	/**
 	 * Constructor to use to discover the figure to use for an overlay
 	 * 
@@ -90,6 +108,22 @@ public class OverlayFigureView extends AbstractContextual implements FigureView
 	 */
 	public OverlayFigureView(final SwingImageDisplayViewer displayViewer,
 		final OverlayView overlayView, final Figure figure)
+	{
+		this(displayViewer, overlayView, figure, true);
+	}
+
+	/**
+	 * Constructor to use when adding many overlays at once
+	 * 
+	 * @param displayViewer - hook to this display viewer
+	 * @param overlayView - represent this overlay
+	 * @param figure - draw using this figure, or null to create one
+	 * @param addToDrawing - whether a newly created figure should be added to
+	 *          the drawing right away, or left to the caller to add in bulk
+	 */
+	public OverlayFigureView(final SwingImageDisplayViewer displayViewer,
+		final OverlayView overlayView, final Figure figure,
+		final boolean addToDrawing)
 	{
 		setContext(displayViewer.getDisplay().getContext());
 		this.displayViewer = displayViewer;
@@ -103,46 +137,36 @@ public class OverlayFigureView extends AbstractContextual implements FigureView
 		if (figure == null) {
 			this.figure = adapter.createDefaultFigure();
 			adapter.updateFigure(overlayView, this.figure);
-
-			final JHotDrawImageCanvas canvas = displayViewer.getCanvas();
-			final Drawing drawing = canvas.getDrawing();
-			drawing.add(this.figure);
 		}
 		else {
 			this.figure = figure;
+			dirty = true;
 		}
 		this.figure.addFigureListener(new FigureAdapter() {
 
+			@Override
+			public void figureAdded(final FigureEvent e) {
+				shown = true;
+			}
+
 			@Override
 			public void attributeChanged(final FigureEvent e) {
 				if (updatingFigure) return;
-				updatingOverlay = true;
-				try {
-					adapter.updateOverlay(OverlayFigureView.this.figure,
-						OverlayFigureView.this.overlayView);
-					overlayView.update();
-				}
-				finally {
-					updatingOverlay = false;
-				}
+				requestOverlaySync();
 			}
 
 			@Override
 			public void figureChanged(final FigureEvent e) {
 				if (updatingFigure) return;
-				updatingOverlay = true;
-				try {
-					adapter.updateOverlay(OverlayFigureView.this.figure,
-						OverlayFigureView.this.overlayView);
-					overlayView.update();
-				}
-				finally {
-					updatingOverlay = false;
-				}
+				requestOverlaySync();
 			}
 
 			@Override
 			public void figureRemoved(final FigureEvent e) {
+				shown = false;
+				if (detached) return; // removal is handled by the batch
+				// NB: Hiding the figure for another plane must never delete it.
+				if (updatingFigure) return;
 				final ImageDisplay d = getDisplay();
 				if (d.isVisible(overlayView)) {
 					DataView view = getDataView();
@@ -152,10 +176,18 @@ public class OverlayFigureView extends AbstractContextual implements FigureView
 					view.dispose();
 					// end TODO replace
 					dispose();
-					d.update();
+					displayViewer.getCanvas().requestDisplayUpdate();
 				}
 			}
 		});
+		if (figure == null && addToDrawing) {
+			final JHotDrawImageCanvas canvas = displayViewer.getCanvas();
+			final Drawing drawing = canvas.getDrawing();
+			drawing.add(this.figure);
+		}
+		else if (figure != null) {
+			shown = displayViewer.getCanvas().getDrawing().contains(figure);
+		}
 	}
 
 	// -- DataView methods --
@@ -170,13 +202,15 @@ public class OverlayFigureView extends AbstractContextual implements FigureView
 		final JHotDrawImageCanvas canvas = displayViewer.getCanvas();
 		final Drawing drawing = canvas.getDrawing();
 		final Figure fig = getFigure();
+		// NB: The shown flag tracks drawing membership via the figure listener,
+		// avoiding a linear Drawing.contains check on every update.
 		if (doShow) {
-			if (!drawing.contains(fig)) {
+			if (!shown) {
 				drawing.add(fig);
 			}
 		}
 		else {
-			if (drawing.contains(fig)) {
+			if (shown) {
 				drawing.remove(fig);
 			}
 		}
@@ -194,14 +228,31 @@ public class OverlayFigureView extends AbstractContextual implements FigureView
 
 	@Override
 	public void dispose() {
+		// NB: Never push figure edits into an overlay which is going away.
+		overlayDirty = false;
+		final JHotDrawImageCanvas canvas = displayViewer.getCanvas();
+		if (canvas != null) canvas.cancelOverlaySync(this);
 		figure.requestRemove();
 	}
 
+	/** Marks the overlay out of date and schedules a coalesced sync. */
+	private void requestOverlaySync() {
+		overlayDirty = true;
+		displayViewer.getCanvas().requestOverlaySync(this);
+	}
+
 	private void updateFigure() {
 		if (updatingOverlay) return;
+		// NB: Push pending figure edits first, so they are not overwritten.
+		syncOverlay();
 		updatingFigure = true;
 		try {
-			adapter.updateFigure(overlayView, figure);
+			// NB: Only resync the figure when its overlay actually changed. Plane
+			// changes only affect visibility.
+			if (dirty) {
+				dirty = false;
+				adapter.updateFigure(overlayView, figure);
+			}
 			show(getDisplay().isVisible(overlayView));
 		}
 		finally {
@@ -214,4 +265,64 @@ public class OverlayFigureView extends AbstractContextual implements FigureView
 		return overlayView;
 	}
 
+	/**
+	 * Pushes pending edits of the figure into the overlay, if there are any.
+	 */
+	void syncOverlay() {
+		if (!overlayDirty) return;
+		overlayDirty = false;
+		updatingOverlay = true;
+		try {
+			adapter.updateOverlay(figure, overlayView);
+			overlayView.update();
+		}
+		finally {
+			updatingOverlay = false;
+		}
+	}
+
+	/**
+	 * Whether pushing edits of the figure into the overlay is costly enough to
+	 * be postponed until the end of a drag.
+	 */
+	boolean isExpensive() {
+		if (figure instanceof GeneralPathFigure) return true;
+		return figure instanceof BezierFigure &&
+			((BezierFigure) figure).getNodeCount() > EXPENSIVE_NODE_COUNT;
+	}
+
+	/** Shows or hides the figure, without resyncing it to the overlay. */
+	@Override
+	public void updateVisibility(final boolean visible) {
+		if (updatingOverlay) return;
+		updatingFigure = true;
+		try {
+			show(visible);
+		}
+		finally {
+			updatingFigure = false;
+		}
+	}
+
+	/**
+	 * Flags the figure as out of date with respect to its overlay. Changes which
+	 * originate from the figure itself are ignored.
+	 */
+	void markDirty() {
+		if (!updatingOverlay) dirty = true;
+	}
+
+	/** Whether the figure awaits a resync with its overlay. */
+	boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * Marks this view as being removed in bulk, so that removing its figure
+	 * from the drawing does not also remove the view from the display.
+	 */
+	void detach() {
+		detached = true;
+	}
+
 }
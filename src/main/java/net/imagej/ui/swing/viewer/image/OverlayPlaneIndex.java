@@ -0,0 +1,300 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ui.swing.viewer.image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.imagej.axis.AxisType;
+import net.imagej.display.DataView;
+import net.imagej.display.ImageDisplay;
+
+/**
+ * Groups the {@link OverlayFigureView}s of a display by the plane they belong
+ * to, so that a change of plane only touches the figures which enter or leave
+ * the view.
+ * <p>
+ * Overlays are grouped by their view's position along the non-XY axes of the
+ * display. Whether a group is on the display's current plane is decided from
+ * its key alone. Overlays that span one of those axes themselves cannot be
+ * grouped and are evaluated individually.
+ * </p>
+ * <p>
+ * The index relies on one invariant of {@link ImageDisplay#isVisible}: a view
+ * positioned on another plane than the display's is never visible. Members of
+ * a group off the current plane are therefore hidden without asking the
+ * display, which is asserted, while members of the group on the current plane
+ * are evaluated one by one with {@link ImageDisplay#isVisible}, so that any
+ * other input to their visibility is honored.
+ * </p>
+ */
+public class OverlayPlaneIndex {
+
+	/** Groups of views keyed by plane position. */
+	private final Map<PlaneKey, Group> groups = new HashMap<>();
+
+	/** Group of each indexed view, or null if evaluated individually. */
+	private final Map<Member, Group> membership =
+		new IdentityHashMap<>();
+
+	/** Views which span a non-XY axis of the display. */
+	private final Set<Member> ungrouped = Collections
+		.newSetFromMap(new IdentityHashMap<Member, Boolean>());
+
+	/** Views waiting to be (re)indexed on the next update. */
+	private final Set<Member> pending = Collections
+		.newSetFromMap(new IdentityHashMap<Member, Boolean>());
+
+	/** Axes of the display the current keys were computed against. */
+	private AxisType[] axes = new AxisType[0];
+
+	// -- OverlayPlaneIndex methods --
+
+	/**
+	 * Schedules a view to be (re)indexed on the next update, e.g. because it is
+	 * new or its overlay changed.
+	 */
+	public void reindex(final Member view) {
+		pending.add(view);
+	}
+
+	/**
+	 * Schedules a view to be reindexed if its data view moved to another plane
+	 * since it was last indexed.
+	 */
+	public void reindexIfMoved(final Member view) {
+		if (pending.contains(view) || !membership.containsKey(view)) return;
+		final Group group = membership.get(view);
+		final PlaneKey key = getKey(view.getDataView());
+		final boolean moved = group == null ? key != null : !group.key.equals(key);
+		if (moved) pending.add(view);
+	}
+
+	/** Removes a view from the index. */
+	public void remove(final Member view) {
+		pending.remove(view);
+		ungrouped.remove(view);
+		final Group group = membership.remove(view);
+		if (group != null) group.remove(view);
+	}
+
+	/** Removes all views from the index. */
+	public void clear() {
+		groups.clear();
+		membership.clear();
+		ungrouped.clear();
+		pending.clear();
+	}
+
+	/**
+	 * Shows the figures of the overlays on the display's current plane, and
+	 * hides the others, touching only groups whose visibility changed.
+	 */
+	public void update(final ImageDisplay display) {
+		final AxisType[] displayAxes = getPlaneAxes(display);
+		if (!Arrays.equals(axes, displayAxes)) {
+			// the display was restructured; all keys are stale
+			axes = displayAxes;
+			pending.addAll(membership.keySet());
+			groups.clear();
+			membership.clear();
+			ungrouped.clear();
+		}
+
+		// NB: Index first, and only then apply visibility. A group's visibility
+		// may be stale until it is re-evaluated for the current plane below.
+		final List<Member> indexed = new ArrayList<>(pending);
+		for (final Member view : pending) {
+			final Group oldGroup = membership.remove(view);
+			if (oldGroup != null) oldGroup.remove(view);
+			ungrouped.remove(view);
+
+			final PlaneKey key = getKey(view.getDataView());
+			if (key == null) {
+				ungrouped.add(view);
+				membership.put(view, null);
+				continue;
+			}
+			Group group = groups.get(key);
+			if (group == null) {
+				group = new Group(key);
+				group.current = isCurrent(key, display);
+				groups.put(key, group);
+			}
+			group.add(view);
+			membership.put(view, group);
+		}
+		pending.clear();
+
+		final List<PlaneKey> empty = new ArrayList<>();
+		for (final Map.Entry<PlaneKey, Group> entry : groups.entrySet()) {
+			final Group group = entry.getValue();
+			if (group.views.isEmpty()) {
+				empty.add(entry.getKey());
+				continue;
+			}
+			final boolean current = isCurrent(group.key, display);
+			if (current == group.current) continue;
+			group.current = current;
+			for (final Member view : group.views) {
+				updateVisibility(view, current, display);
+			}
+		}
+		for (final PlaneKey key : empty) {
+			groups.remove(key);
+		}
+		for (final Member view : indexed) {
+			final Group group = membership.get(view);
+			if (group != null) updateVisibility(view, group.current, display);
+		}
+
+		for (final Member view : ungrouped) {
+			view.updateVisibility(display.isVisible(view.getDataView()));
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Gets whether the given plane is the display's current one. */
+	private boolean isCurrent(final PlaneKey key, final ImageDisplay display) {
+		for (int i = 0; i < axes.length; i++) {
+			if (key.position[i] != display.getLongPosition(axes[i])) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Shows a grouped view if the display says so and its group is on the
+	 * current plane, and hides it otherwise.
+	 */
+	private void updateVisibility(final Member view, final boolean current,
+		final ImageDisplay display)
+	{
+		if (current) {
+			view.updateVisibility(display.isVisible(view.getDataView()));
+			return;
+		}
+		// NB: A view on another plane is never visible; see the class notes.
+		assert !display.isVisible(view.getDataView());
+		view.updateVisibility(false);
+	}
+
+	private static AxisType[] getPlaneAxes(final ImageDisplay display) {
+		final List<AxisType> planeAxes = new ArrayList<>();
+		for (int i = 0; i < display.numDimensions(); i++) {
+			final AxisType axisType = display.axis(i).type();
+			if (!axisType.isXY()) planeAxes.add(axisType);
+		}
+		return planeAxes.toArray(new AxisType[planeAxes.size()]);
+	}
+
+	/**
+	 * Gets the plane of the given view, or null if its overlay spans one of the
+	 * plane axes and so has to be evaluated individually.
+	 */
+	private PlaneKey getKey(final DataView view) {
+		final long[] position = new long[axes.length];
+		for (int i = 0; i < axes.length; i++) {
+			if (view.getData().dimensionIndex(axes[i]) >= 0) return null;
+			position[i] = view.getLongPosition(axes[i]);
+		}
+		return new PlaneKey(position);
+	}
+
+	// -- Helper classes --
+
+	/** A figure whose visibility follows the plane of its data view. */
+	public interface Member {
+
+		/** Gets the view whose plane determines the visibility. */
+		DataView getDataView();
+
+		/** Shows or hides the figure. */
+		void updateVisibility(boolean visible);
+	}
+
+	/** Views sharing a plane, and whether that plane is the current one. */
+	private static class Group {
+
+		private final PlaneKey key;
+		private final List<Member> views = new ArrayList<>();
+		private final Map<Member, Integer> indices =
+			new IdentityHashMap<>();
+		private boolean current;
+
+		private Group(final PlaneKey key) {
+			this.key = key;
+		}
+
+		private void add(final Member view) {
+			indices.put(view, views.size());
+			views.add(view);
+		}
+
+		private void remove(final Member view) {
+			final Integer index = indices.remove(view);
+			if (index == null) return;
+			// NB: Swap with the last view to remove in constant time.
+			final Member last = views.remove(views.size() - 1);
+			if (last != view) {
+				views.set(index, last);
+				indices.put(last, index);
+			}
+		}
+	}
+
+	/** Position of a plane along the non-XY axes of the display. */
+	private static class PlaneKey {
+
+		private final long[] position;
+
+		private PlaneKey(final long[] position) {
+			this.position = position;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof PlaneKey &&
+				Arrays.equals(position, ((PlaneKey) o).position);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(position);
+		}
+	}
+
+}
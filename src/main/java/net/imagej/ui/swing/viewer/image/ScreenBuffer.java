@@ -0,0 +1,106 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.viewer.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+/**
+ * A buffer of packed ARGB pixels, together with a {@link BufferedImage} which
+ * wraps them for the whole life of the buffer. Reusing the buffer thus reuses
+ * the image, and whatever Java2D keeps for it, rather than wrapping the pixels
+ * anew on every frame.
+ */
+public final class ScreenBuffer {
+
+	private final int[] pixels;
+	private final int width, height;
+	private BufferedImage image;
+
+	public ScreenBuffer(final int width, final int height) {
+		this(new int[width * height], width, height);
+	}
+
+	public ScreenBuffer(final int[] pixels, final int width, final int height) {
+		this(pixels, width, height, null);
+	}
+
+	/**
+	 * Creates a buffer over the given pixels, which the given image, if any,
+	 * already wraps.
+	 */
+	public ScreenBuffer(final int[] pixels, final int width, final int height,
+		final BufferedImage image)
+	{
+		this.pixels = pixels;
+		this.width = width;
+		this.height = height;
+		this.image = image;
+	}
+
+	// -- ScreenBuffer methods --
+
+	/** Gets the packed ARGB pixels of this buffer, in row-major order. */
+	public int[] getPixels() {
+		return pixels;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/** Gets whether this buffer has the given dimensions. */
+	public boolean fits(final int w, final int h) {
+		return width == w && height == h;
+	}
+
+	/** Gets the image backed by this buffer's pixels. */
+	public synchronized BufferedImage getImage() {
+		if (image == null) {
+			final DataBufferInt buffer = new DataBufferInt(pixels, pixels.length);
+			final DirectColorModel cm =
+				(DirectColorModel) ColorModel.getRGBdefault();
+			final WritableRaster raster = Raster.createPackedRaster(buffer, width,
+				height, width, cm.getMasks(), null);
+			image = new BufferedImage(cm, raster, false, null);
+		}
+		return image;
+	}
+
+}
@@ -0,0 +1,291 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ui.swing.viewer.image;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+import net.imagej.display.DatasetView;
+import net.imglib2.converter.RealLUTConverter;
+import net.imglib2.display.ColorTable;
+import net.imglib2.display.projector.composite.CompositeXYProjector;
+import net.imglib2.display.screenimage.awt.ARGBScreenImage;
+import net.imglib2.type.numeric.RealType;
+
+/**
+ * A plane of a {@link DatasetView}, copied out of the view's screen image
+ * together with the display state it was projected from.
+ * <p>
+ * Frames are projected off the EDT through the view's own projector, so the
+ * view's screen image stays up to date for everyone else reading it. The
+ * result is then copied into a buffer of the frame's own, which is never
+ * written again while it is displayed or pinned.
+ * </p>
+ * <p>
+ * Planes larger than {@link DatasetFigureView#ZERO_COPY_MAX_PIXELS} are not
+ * projected whole. Their frames are tiled: they carry no pixels, only the
+ * display state, and the visible tiles are projected on demand by a
+ * {@link TileProjector}.
+ * </p>
+ */
+public final class ScreenFrame {
+
+	private final DatasetView view;
+	private final ScreenBuffer buffer;
+	private final int width, height;
+	private final long[] position;
+	private final Colors colors;
+	private final boolean live;
+
+	/** Number of readers using the pixels; guarded by the owning panel. */
+	private int pins;
+
+	private ScreenFrame(final DatasetView view, final ScreenBuffer buffer,
+		final int width, final int height, final long[] position,
+		final Colors colors, final boolean live)
+	{
+		this.view = view;
+		this.buffer = buffer;
+		this.width = width;
+		this.height = height;
+		this.position = position;
+		this.colors = colors;
+		this.live = live;
+	}
+
+	// -- ScreenFrame methods --
+
+	/**
+	 * Maps the current plane of the given view through its projector, then
+	 * copies the view's screen image into the given buffer, or into a new one if
+	 * it has the wrong size.
+	 * 
+	 * @return the copied frame, a tiled frame if the plane is too large to be
+	 *         projected whole, or null if the view changed position or was
+	 *         rebuilt while being mapped, in which case another redraw follows
+	 */
+	public static ScreenFrame project(final DatasetView view,
+		final ScreenBuffer reuse)
+	{
+		final CompositeXYProjector<?> projector = view.getProjector();
+		final ARGBScreenImage screenImage = view.getScreenImage();
+		if (projector == null || screenImage == null) return null;
+		final long[] position = getPosition(projector);
+		final Colors colors = new Colors(view);
+		final int width = (int) screenImage.dimension(0);
+		final int height = (int) screenImage.dimension(1);
+		if ((long) width * height > DatasetFigureView.ZERO_COPY_MAX_PIXELS) {
+			return new ScreenFrame(view, null, width, height, position, colors,
+				false);
+		}
+		projector.map();
+		if (projector != view.getProjector() ||
+			screenImage != view.getScreenImage() ||
+			!Arrays.equals(position, getPosition(projector)))
+		{
+			return null;
+		}
+		final ScreenBuffer buffer = reuse != null && reuse.fits(width, height)
+			? reuse : new ScreenBuffer(width, height);
+		System.arraycopy(screenImage.getData(), 0, buffer.getPixels(), 0, width *
+			height);
+		return new ScreenFrame(view, buffer, width, height, position, colors,
+			false);
+	}
+
+	/**
+	 * Wraps the view's screen image as it currently is, without copying it. The
+	 * pixels of such a live frame change whenever the view is mapped again.
+	 * 
+	 * @param reuse buffer of an earlier live frame, reused if it still wraps
+	 *          the view's screen image
+	 */
+	public static ScreenFrame wrap(final DatasetView view,
+		final ScreenBuffer reuse)
+	{
+		final CompositeXYProjector<?> projector = view.getProjector();
+		final ARGBScreenImage screenImage = view.getScreenImage();
+		if (projector == null || screenImage == null) return null;
+		final int[] data = screenImage.getData();
+		final int width = (int) screenImage.dimension(0);
+		final int height = (int) screenImage.dimension(1);
+		ScreenBuffer buffer = reuse;
+		if (buffer == null || buffer.getPixels() != data) {
+			// NB: The screen image already wraps its pixels in an image of its own.
+			final Image image = screenImage.image();
+			buffer = new ScreenBuffer(data, width, height,
+				image instanceof BufferedImage ? (BufferedImage) image : null);
+		}
+		return new ScreenFrame(view, buffer, width, height,
+			getPosition(projector), new Colors(view), true);
+	}
+
+	/** Gets the view this frame was projected from. */
+	public DatasetView getView() {
+		return view;
+	}
+
+	/** Gets the buffer holding this frame's pixels, or null if tiled. */
+	public ScreenBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Gets the packed ARGB pixels of this frame, in row-major order, or null if
+	 * tiled.
+	 */
+	public int[] getPixels() {
+		return buffer == null ? null : buffer.getPixels();
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/** Gets the projected plane's position along the non-XY axes. */
+	public long[] getPosition() {
+		return position.clone();
+	}
+
+	/**
+	 * Gets whether this frame's plane is too large to be projected whole, so
+	 * that it carries no pixels and is drawn tile by tile instead.
+	 */
+	public boolean isTiled() {
+		return buffer == null;
+	}
+
+	/**
+	 * Gets whether this frame wraps the view's screen image rather than a copy
+	 * of it.
+	 */
+	public boolean isLive() {
+		return live;
+	}
+
+	/**
+	 * Gets whether this frame was projected with the same channel ranges, color
+	 * tables and compositing as the given one.
+	 */
+	public boolean hasSameColors(final ScreenFrame that) {
+		return that != null && colors.equals(that.colors);
+	}
+
+	/** Gets the image backed by this frame's buffer, or null if tiled. */
+	public BufferedImage getImage() {
+		return buffer == null ? null : buffer.getImage();
+	}
+
+	// -- Internal methods --
+
+	/** Keeps the pixels from being reused; the caller holds the panel lock. */
+	void pin() {
+		pins++;
+	}
+
+	/** Releases a {@link #pin()}; the caller holds the panel lock. */
+	void unpin() {
+		if (pins > 0) pins--;
+	}
+
+	/** Gets whether the pixels are in use; the caller holds the panel lock. */
+	boolean isPinned() {
+		return pins > 0;
+	}
+
+	// -- Helper methods --
+
+	/** Gets the position of the projector along the non-XY axes. */
+	private static long[] getPosition(final CompositeXYProjector<?> projector) {
+		final long[] position =
+			new long[Math.max(0, projector.numDimensions() - 2)];
+		for (int i = 0; i < position.length; i++) {
+			position[i] = projector.getLongPosition(i + 2);
+		}
+		return position;
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * The channel ranges, color tables and compositing of a view, used only to
+	 * tell whether two frames were colored alike.
+	 */
+	private static final class Colors {
+
+		private final double[] mins, maxs;
+		private final ColorTable[] colorTables;
+		private final boolean composite;
+
+		private Colors(final DatasetView view) {
+			composite = view.getProjector().isComposite();
+			final List<RealLUTConverter<? extends RealType<?>>> converters =
+				view.getConverters();
+			final int count = converters.size();
+			mins = new double[count];
+			maxs = new double[count];
+			colorTables = new ColorTable[count];
+			for (int c = 0; c < count; c++) {
+				final RealLUTConverter<? extends RealType<?>> converter =
+					converters.get(c);
+				mins[c] = converter.getMin();
+				maxs[c] = converter.getMax();
+				colorTables[c] = converter.getLUT();
+			}
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof Colors)) return false;
+			final Colors that = (Colors) o;
+			if (composite != that.composite) return false;
+			if (!Arrays.equals(mins, that.mins)) return false;
+			if (!Arrays.equals(maxs, that.maxs)) return false;
+			if (colorTables.length != that.colorTables.length) return false;
+			for (int c = 0; c < colorTables.length; c++) {
+				// NB: Color tables are replaced rather than edited in place.
+				if (colorTables[c] != that.colorTables[c]) return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(mins) ^ Arrays.hashCode(maxs);
+		}
+	}
+
+}
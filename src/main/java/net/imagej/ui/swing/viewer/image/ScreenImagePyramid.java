@@ -0,0 +1,336 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.viewer.image;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lazily built mip-map pyramid of projected image planes. Level 0 is the
+ * projected plane itself; each subsequent level halves the resolution of the
+ * previous one by averaging 2 x 2 blocks of ARGB pixels.
+ * <p>
+ * Downsampled levels are retained per plane position, up to a fixed pixel
+ * budget which the current plane counts against too, so that revisiting a
+ * plane does not rebuild its levels. A plane projected anew with the same
+ * color table version keeps its levels, since its pixels are the same; a new
+ * version discards the levels of all planes.
+ * </p>
+ */
+public class ScreenImagePyramid {
+
+	/**
+	 * Number of downsampled pixels retained across all planes, enough for all
+	 * levels of the largest plane which is projected whole.
+	 */
+	private static final long MAX_CACHED_PIXELS = 8L * 1024 * 1024;
+
+	/** Downsampled levels of each plane, in least-recently-used order. */
+	private final Map<PlaneKey, List<Level>> planes =
+		new LinkedHashMap<>(16, 0.75f, true);
+
+	private PlaneKey current;
+	private long version;
+	private Level base;
+	private long cachedPixels;
+
+	// -- ScreenImagePyramid methods --
+
+	/**
+	 * Gets the pyramid level whose resolution is nearest the given zoom factor.
+	 */
+	public static int getLevelForZoom(final double zoom) {
+		if (!(zoom > 0) || zoom >= 1) return 0;
+		return (int) Math.round(Math.log(1 / zoom) / Math.log(2));
+	}
+
+	/**
+	 * Sets the freshly projected pixels of the given plane. Levels built from
+	 * an earlier projection of the plane are kept, unless the pixels were
+	 * projected with another color table version, in which case the levels of
+	 * all planes are discarded.
+	 * 
+	 * @param position position of the plane along the non-XY axes
+	 * @param planeVersion color table version with which the pixels were
+	 *          projected
+	 * @param buffer the projected pixels
+	 */
+	public synchronized void setPlane(final long[] position,
+		final long planeVersion, final ScreenBuffer buffer)
+	{
+		if (planeVersion != version) {
+			invalidateAll();
+			version = planeVersion;
+		}
+		current = new PlaneKey(position);
+		if (base == null || base.buffer != buffer) base = new Level(0, buffer);
+	}
+
+	/** Discards the downsampled levels of the given plane. */
+	public synchronized void invalidate(final long[] position) {
+		final List<Level> levels = planes.remove(new PlaneKey(position));
+		if (levels != null) cachedPixels -= pixelCount(levels);
+	}
+
+	/** Discards the downsampled levels of all planes. */
+	public synchronized void invalidateAll() {
+		planes.clear();
+		cachedPixels = 0;
+	}
+
+	/** Gets the number of levels of a plane of the given size. */
+	public static int getLevelCount(final int width, final int height) {
+		int count = 1;
+		for (int w = width, h = height; w > 1 || h > 1; count++) {
+			w = (w + 1) / 2;
+			h = (h + 1) / 2;
+		}
+		return count;
+	}
+
+	/** Gets the number of levels available for the current plane. */
+	public synchronized int getLevelCount() {
+		if (base == null) return 0;
+		return getLevelCount(base.getWidth(), base.getHeight());
+	}
+
+	/**
+	 * Gets the given level of the current plane, building it (and any coarser
+	 * levels it depends on) as needed.
+	 * 
+	 * @return the level, clamped to the coarsest available one, or null if no
+	 *         plane has been set
+	 */
+	public synchronized Level getLevel(final int level) {
+		if (base == null) return null;
+		final int target = Math.min(level, getLevelCount() - 1);
+		if (target <= 0) return base;
+
+		List<Level> levels = planes.get(current);
+		if (levels == null) {
+			levels = new ArrayList<>();
+			planes.put(current, levels);
+		}
+		while (levels.size() < target) {
+			final Level finer =
+				levels.isEmpty() ? base : levels.get(levels.size() - 1);
+			final Level coarser = finer.downsample();
+			levels.add(coarser);
+			cachedPixels += coarser.getPixels().length;
+		}
+		evict();
+		return levels.get(target - 1);
+	}
+
+	/**
+	 * Builds the levels of a plane up to the given one, clamped to the
+	 * coarsest available level. The pyramid is not touched, so this may run on
+	 * any thread while the pixels are not written.
+	 * 
+	 * @return the downsampled levels, finest first, for
+	 *         {@link #putLevels(long[], long, List)}
+	 */
+	public static List<Level> buildLevels(final ScreenBuffer buffer,
+		final int level)
+	{
+		final List<Level> levels = new ArrayList<>();
+		Level finer = new Level(0, buffer);
+		while (levels.size() < level &&
+			(finer.getWidth() > 1 || finer.getHeight() > 1))
+		{
+			finer = finer.downsample();
+			levels.add(finer);
+		}
+		return levels;
+	}
+
+	/**
+	 * Adds levels built by {@link #buildLevels(ScreenBuffer, int)} for the
+	 * given plane, unless they are of another color table version than the
+	 * current plane, or the plane already has as many levels.
+	 */
+	public synchronized void putLevels(final long[] position,
+		final long planeVersion, final List<Level> levels)
+	{
+		if (planeVersion != version || levels.isEmpty()) return;
+		final PlaneKey key = new PlaneKey(position);
+		final List<Level> existing = planes.get(key);
+		if (existing != null) {
+			if (existing.size() >= levels.size()) return;
+			cachedPixels -= pixelCount(existing);
+		}
+		planes.put(key, new ArrayList<>(levels));
+		cachedPixels += pixelCount(levels);
+		evict();
+	}
+
+	/**
+	 * Gets the given level of any plane, if it was already built.
+	 * 
+	 * @return the level, or null if it is not cached
+	 */
+	public synchronized Level getCachedLevel(final long[] position,
+		final int level)
+	{
+		final PlaneKey key = new PlaneKey(position);
+		if (level == 0) return key.equals(current) ? base : null;
+		final List<Level> levels = planes.get(key);
+		if (levels == null || levels.size() < level) return null;
+		return levels.get(level - 1);
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Drops the least recently used planes until within the pixel budget. The
+	 * current plane goes last; levels already handed out stay usable.
+	 */
+	private void evict() {
+		final Iterator<Map.Entry<PlaneKey, List<Level>>> iter =
+			planes.entrySet().iterator();
+		while (cachedPixels > MAX_CACHED_PIXELS && iter.hasNext()) {
+			final Map.Entry<PlaneKey, List<Level>> entry = iter.next();
+			if (entry.getKey().equals(current)) continue;
+			cachedPixels -= pixelCount(entry.getValue());
+			iter.remove();
+		}
+		if (cachedPixels > MAX_CACHED_PIXELS) invalidate(current.position);
+	}
+
+	private static long pixelCount(final List<Level> levels) {
+		long count = 0;
+		for (final Level level : levels) {
+			count += level.getPixels().length;
+		}
+		return count;
+	}
+
+	// -- Helper classes --
+
+	/** A single resolution level of a projected plane. */
+	public static final class Level {
+
+		private final int level;
+		private final ScreenBuffer buffer;
+
+		private Level(final int level, final ScreenBuffer buffer) {
+			this.level = level;
+			this.buffer = buffer;
+		}
+
+		/** Gets the index of this level; 0 is full resolution. */
+		public int getLevel() {
+			return level;
+		}
+
+		/** Gets the number of data pixels spanned by each pixel of this level. */
+		public int getScale() {
+			return 1 << level;
+		}
+
+		/** Gets the packed ARGB pixels of this level, in row-major order. */
+		public int[] getPixels() {
+			return buffer.getPixels();
+		}
+
+		public int getWidth() {
+			return buffer.getWidth();
+		}
+
+		public int getHeight() {
+			return buffer.getHeight();
+		}
+
+		/** Gets the image backed by this level's pixels. */
+		public BufferedImage getImage() {
+			return buffer.getImage();
+		}
+
+		/** Builds the next coarser level by averaging 2 x 2 pixel blocks. */
+		private Level downsample() {
+			final int[] pixels = buffer.getPixels();
+			final int width = buffer.getWidth();
+			final int height = buffer.getHeight();
+			final int w = (width + 1) / 2;
+			final int h = (height + 1) / 2;
+			final int[] result = new int[w * h];
+			for (int y = 0; y < h; y++) {
+				final int y0 = 2 * y, y1 = Math.min(y0 + 1, height - 1);
+				for (int x = 0; x < w; x++) {
+					final int x0 = 2 * x, x1 = Math.min(x0 + 1, width - 1);
+					final int p00 = pixels[y0 * width + x0];
+					final int p01 = pixels[y0 * width + x1];
+					final int p10 = pixels[y1 * width + x0];
+					final int p11 = pixels[y1 * width + x1];
+					result[y * w + x] = average(p00, p01, p10, p11, 24) |
+						average(p00, p01, p10, p11, 16) | average(p00, p01, p10, p11, 8) |
+						average(p00, p01, p10, p11, 0);
+				}
+			}
+			return new Level(level + 1, new ScreenBuffer(result, w, h));
+		}
+
+		private static int average(final int p00, final int p01, final int p10,
+			final int p11, final int shift)
+		{
+			final int sum = ((p00 >>> shift) & 0xff) + ((p01 >>> shift) & 0xff) +
+				((p10 >>> shift) & 0xff) + ((p11 >>> shift) & 0xff);
+			return ((sum + 2) >> 2) << shift;
+		}
+	}
+
+	/** Identifies a plane by its position along the non-XY axes. */
+	private static final class PlaneKey {
+
+		private final long[] position;
+
+		private PlaneKey(final long[] position) {
+			this.position = position.clone();
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof PlaneKey &&
+				Arrays.equals(position, ((PlaneKey) o).position);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(position);
+		}
+	}
+
+}
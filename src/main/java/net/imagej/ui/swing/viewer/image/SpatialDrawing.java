@@ -0,0 +1,328 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ui.swing.viewer.image;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.jhotdraw.draw.Figure;
+import org.jhotdraw.draw.QuadTreeDrawing;
+
+/**
+ * A {@link QuadTreeDrawing} whose hit tests and paint order are
+ * output-sensitive, for images carrying many thousands of overlays.
+ * <p>
+ * The quadtree (keyed on {@link Figure#getDrawingArea()}, and kept up to date
+ * by {@link QuadTreeDrawing} as figures change) narrows every query down to
+ * the figures near the point or clip of interest. The children carry
+ * increasing sequence numbers, maintained as they are added, removed and
+ * reordered, so that those few candidates can be put in paint order, and any
+ * child located in the list, without walking the whole list of children.
+ * </p>
+ */
+public class SpatialDrawing extends QuadTreeDrawing {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Half the side of the region queried around a hit test point. */
+	private static final double HIT_EPSILON = 1e-6;
+
+	public SpatialDrawing() {
+		children = new ZOrderList();
+	}
+
+	// -- Drawing methods --
+
+	@Override
+	public Figure findFigure(final Point2D.Double p) {
+		final List<Figure> candidates =
+			sort(findFigures(new Rectangle2D.Double(p.x - HIT_EPSILON, p.y -
+				HIT_EPSILON, 2 * HIT_EPSILON, 2 * HIT_EPSILON)));
+		// NB: Search from front to back.
+		for (int i = candidates.size() - 1; i >= 0; i--) {
+			final Figure f = candidates.get(i);
+			if (f.isVisible() && f.contains(p)) return f;
+		}
+		return null;
+	}
+
+	@Override
+	public List<Figure> sort(final Collection<? extends Figure> figures) {
+		final ZOrderList order = (ZOrderList) children;
+		final List<Figure> sorted = new ArrayList<>(figures.size());
+		for (final Figure f : figures) {
+			if (order.contains(f)) sorted.add(f);
+		}
+		Collections.sort(sorted, new Comparator<Figure>() {
+
+			@Override
+			public int compare(final Figure f1, final Figure f2) {
+				return Long.compare(order.sequence(f1), order.sequence(f2));
+			}
+		});
+		return sorted;
+	}
+
+	// -- CompositeFigure methods --
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * NB: Removal, {@link #bringToFront} and {@link #sendToBack} all locate the
+	 * child through this method, by binary search on its sequence number.
+	 * </p>
+	 */
+	@Override
+	public int indexOf(final Figure figure) {
+		return children.indexOf(figure);
+	}
+
+	// -- Object methods --
+
+	@Override
+	public SpatialDrawing clone() {
+		final SpatialDrawing that = (SpatialDrawing) super.clone();
+		// NB: The superclass copies the cloned children into a plain list.
+		that.children = new ZOrderList(that.children);
+		return that;
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * The children of the drawing, each tagged with a sequence number which
+	 * increases along the list. Figures are appended and prepended with a gap
+	 * to their neighbor, and inserted halfway between their neighbors; only
+	 * once no gap is left are the numbers reassigned. A figure may occur only
+	 * once, as in any drawing.
+	 */
+	private static class ZOrderList extends ArrayList<Figure> {
+
+		private static final long serialVersionUID = 1L;
+
+		/** Distance between the sequence numbers of freshly numbered figures. */
+		private static final long GAP = 1L << 16;
+
+		private final Map<Figure, Long> sequences = new IdentityHashMap<>();
+
+		private ZOrderList() {
+			// NB: Default constructor.
+		}
+
+		private ZOrderList(final Collection<? extends Figure> figures) {
+			addAll(figures);
+		}
+
+		/** Gets the sequence number of the given child. */
+		private long sequence(final Figure figure) {
+			return sequences.get(figure);
+		}
+
+		// -- List methods --
+
+		@Override
+		public int indexOf(final Object o) {
+			final Long key = sequences.get(o);
+			if (key == null) return -1;
+			int lo = 0, hi = size() - 1;
+			while (lo <= hi) {
+				final int mid = (lo + hi) >>> 1;
+				final long seq = sequences.get(get(mid));
+				if (seq < key) lo = mid + 1;
+				else if (seq > key) hi = mid - 1;
+				else return mid;
+			}
+			throw new IllegalStateException("Sequence numbers out of order");
+		}
+
+		@Override
+		public int lastIndexOf(final Object o) {
+			return indexOf(o);
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			return sequences.containsKey(o);
+		}
+
+		@Override
+		public boolean add(final Figure figure) {
+			add(size(), figure);
+			return true;
+		}
+
+		@Override
+		public void add(final int index, final Figure figure) {
+			if (sequences.containsKey(figure)) {
+				throw new IllegalArgumentException("Figure already in drawing");
+			}
+			super.add(index, figure);
+			number(index);
+		}
+
+		@Override
+		public boolean addAll(final Collection<? extends Figure> figures) {
+			return addAll(size(), figures);
+		}
+
+		@Override
+		public boolean addAll(final int index,
+			final Collection<? extends Figure> figures)
+		{
+			int i = index;
+			for (final Figure f : new ArrayList<>(figures)) {
+				add(i++, f);
+			}
+			return i != index;
+		}
+
+		@Override
+		public Figure set(final int index, final Figure figure) {
+			final Figure old = get(index);
+			if (figure != old && sequences.containsKey(figure)) {
+				throw new IllegalArgumentException("Figure already in drawing");
+			}
+			final Long seq = sequences.remove(old);
+			super.set(index, figure);
+			sequences.put(figure, seq);
+			return old;
+		}
+
+		@Override
+		public Figure remove(final int index) {
+			final Figure figure = super.remove(index);
+			sequences.remove(figure);
+			return figure;
+		}
+
+		@Override
+		public boolean remove(final Object o) {
+			final int index = indexOf(o);
+			if (index < 0) return false;
+			remove(index);
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			super.clear();
+			sequences.clear();
+		}
+
+		@Override
+		protected void removeRange(final int fromIndex, final int toIndex) {
+			for (int i = fromIndex; i < toIndex; i++) {
+				sequences.remove(get(i));
+			}
+			super.removeRange(fromIndex, toIndex);
+		}
+
+		@Override
+		public boolean removeAll(final Collection<?> c) {
+			final boolean changed = super.removeAll(c);
+			if (changed) renumber();
+			return changed;
+		}
+
+		@Override
+		public boolean retainAll(final Collection<?> c) {
+			final boolean changed = super.retainAll(c);
+			if (changed) renumber();
+			return changed;
+		}
+
+		@Override
+		public boolean removeIf(final Predicate<? super Figure> filter) {
+			final boolean changed = super.removeIf(filter);
+			if (changed) renumber();
+			return changed;
+		}
+
+		@Override
+		public void replaceAll(final UnaryOperator<Figure> operator) {
+			super.replaceAll(operator);
+			renumber();
+		}
+
+		@Override
+		public void sort(final Comparator<? super Figure> c) {
+			super.sort(c);
+			renumber();
+		}
+
+		@Override
+		public List<Figure> subList(final int fromIndex, final int toIndex) {
+			// NB: Writes through a sublist would bypass the sequence numbers.
+			return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+		}
+
+		@Override
+		public Object clone() {
+			return new ZOrderList(this);
+		}
+
+		// -- Helper methods --
+
+		/** Numbers the figure just inserted at the given index. */
+		private void number(final int index) {
+			final Figure figure = get(index);
+			final Long prev = index > 0 ? sequences.get(get(index - 1)) : null;
+			final Long next =
+				index < size() - 1 ? sequences.get(get(index + 1)) : null;
+			if (prev == null && next == null) sequences.put(figure, 0L);
+			else if (next == null) sequences.put(figure, prev + GAP);
+			else if (prev == null) sequences.put(figure, next - GAP);
+			else if (next - prev > 1) {
+				sequences.put(figure, prev + (next - prev) / 2);
+			}
+			else renumber();
+		}
+
+		/** Reassigns the sequence numbers of all figures, evenly spaced. */
+		private void renumber() {
+			sequences.clear();
+			long seq = 0;
+			for (int i = 0; i < size(); i++) {
+				sequences.put(get(i), seq);
+				seq += GAP;
+			}
+		}
+	}
+
+}
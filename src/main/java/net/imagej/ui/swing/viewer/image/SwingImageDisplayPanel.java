@@ -35,9 +35,12 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.AdjustmentEvent;
 import java.awt.event.AdjustmentListener;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -46,6 +49,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollBar;
 import javax.swing.SwingConstants;
+import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 
@@ -65,7 +69,9 @@ import net.miginfocom.swing.MigLayout;
 
 import org.scijava.event.EventHandler;
 import org.scijava.event.EventService;
+import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
+import org.scijava.thread.ThreadService;
 import org.scijava.ui.awt.AWTInputEventDispatcher;
 import org.scijava.ui.swing.StaticSwingUtils;
 import org.scijava.ui.viewer.DisplayWindow;
@@ -97,12 +103,51 @@ public class SwingImageDisplayPanel extends JPanel implements ImageDisplayPanel
 	private final Map<AxisType, JLabel> axisLabels =
 		new HashMap<>();
 
+	/** Whether a projection is currently running on a worker thread. */
+	private boolean projecting;
+
+	/** View whose redraw was requested but not yet picked up by the worker. */
+	private DatasetView pendingView;
+
+	/** Whether a canvas update is already queued on the EDT. */
+	private boolean publishPending;
+
+	/** Projected frame waiting to be shown on the EDT. */
+	private ScreenFrame pendingFrame;
+
+	/** Frame currently shown by the canvas. */
+	private ScreenFrame shownFrame;
+
+	/** Most recently projected frame, shown or not. */
+	private ScreenFrame latestFrame;
+
+	/** Buffer of a frame no longer shown, reused by the next projection. */
+	private ScreenBuffer spareBuffer;
+
+	/** Interval, in milliseconds, at which scrubbed positions are applied. */
+	private static final int SCRUB_INTERVAL = 30;
+
+	/** Latest slider values not yet applied to the display while scrubbing. */
+	private final Map<AxisType, Integer> scrubPositions = new LinkedHashMap<>();
+
+	/** Applies scrubbed positions whenever the previous frame is done. */
+	private final Timer scrubTimer;
+
+	/** Whether to show cached low resolution previews while scrubbing. */
+	private boolean scrubPreview = true;
+
 	@Parameter
 	private ImageDisplayService imageDisplayService;
 
 	@Parameter
 	private EventService eventService;
 
+	@Parameter
+	private ThreadService threadService;
+
+	@Parameter
+	private LogService log;
+
 	// -- constructors --
 
 	public SwingImageDisplayPanel(final SwingImageDisplayViewer displayViewer,
@@ -113,6 +158,15 @@ public class SwingImageDisplayPanel extends JPanel implements ImageDisplayPanel
 
 		display = displayViewer.getDisplay();
 
+		scrubTimer = new Timer(SCRUB_INTERVAL, new ActionListener() {
+
+			@Override
+			public void actionPerformed(final ActionEvent e) {
+				scrubStep();
+			}
+		});
+		scrubTimer.setInitialDelay(0);
+
 		imageLabel = new JLabel(" ");
 		final int prefHeight = imageLabel.getPreferredSize().height;
 		imageLabel.setPreferredSize(new Dimension(0, prefHeight));
@@ -149,6 +203,51 @@ public class SwingImageDisplayPanel extends JPanel implements ImageDisplayPanel
 		dispatcher.register(this, true, false);
 	}
 
+	/**
+	 * Gets the most recently projected frame, whether or not it is shown yet,
+	 * or null if none was projected. Its pixels are only safe to read on the
+	 * EDT; other threads must use {@link #pinLatestFrame(DatasetView)}.
+	 */
+	public synchronized ScreenFrame getLatestFrame() {
+		return latestFrame;
+	}
+
+	/**
+	 * Gets the most recently projected frame of the given view and keeps its
+	 * buffer from being reused by later projections until it is released by
+	 * {@link #releaseFrame(ScreenFrame)}.
+	 * 
+	 * @return the pinned frame, or null if the view has no projected frame
+	 */
+	public synchronized ScreenFrame pinLatestFrame(final DatasetView view) {
+		if (latestFrame == null || latestFrame.getView() != view) return null;
+		latestFrame.pin();
+		return latestFrame;
+	}
+
+	/**
+	 * Keeps the buffer of the given frame from being reused until it is
+	 * released. Called on the EDT for a frame which is shown or about to be.
+	 */
+	public synchronized void pinFrame(final ScreenFrame frame) {
+		frame.pin();
+	}
+
+	/** Releases a frame pinned by {@link #pinLatestFrame(DatasetView)}. */
+	public synchronized void releaseFrame(final ScreenFrame frame) {
+		if (frame != null) frame.unpin();
+	}
+
+	/**
+	 * Blocks until any pending projection requested by {@link #redraw()} has
+	 * finished.
+	 */
+	public synchronized void awaitRedraw() throws InterruptedException {
+		while (projecting) {
+			wait();
+		}
+	}
+
 	// -- ImageDisplayPanel methods --
 
 	@Override
@@ -194,12 +293,44 @@ public class SwingImageDisplayPanel extends JPanel implements ImageDisplayPanel
 		imageLabel.setText(s);
 	}
 
+	/**
+	 * Maps the active dataset view through its projector on a worker thread,
+	 * then shows a copy of the result on the EDT. Requests arriving while a
+	 * projection is running are coalesced, so that only the most recent display
+	 * position is rendered.
+	 */
 	@Override
 	public void redraw() {
 		final DatasetView view = imageDisplayService.getActiveDatasetView(display);
 		if (view == null || view.getProjector() == null) return; // no active dataset
-		view.getProjector().map();
-		displayViewer.getCanvas().update();
+		synchronized (this) {
+			pendingView = view;
+			// NB: The running worker picks up the latest request once it is done.
+			if (projecting) return;
+			projecting = true;
+		}
+		threadService.run(new Runnable() {
+
+			@Override
+			public void run() {
+				project();
+			}
+		});
+	}
+
+	// -- SwingImageDisplayPanel methods --
+
+	/**
+	 * Sets whether a cached low resolution preview of each plane is shown while
+	 * an axis slider is dragged, ahead of the full resolution render.
+	 */
+	public void setScrubPreview(final boolean scrubPreview) {
+		this.scrubPreview = scrubPreview;
+	}
+
+	/** Gets whether previews are shown while an axis slider is dragged. */
+	public boolean isScrubPreview() {
+		return scrubPreview;
 	}
 
 	// -- Event handlers --
@@ -221,6 +352,124 @@ public class SwingImageDisplayPanel extends JPanel implements ImageDisplayPanel
 
 	// -- Helper methods --
 
+	/** Projects until no more redraws are pending, dropping stale requests. */
+	private void project() {
+		try {
+			while (true) {
+				final DatasetView view;
+				final ScreenBuffer buffer;
+				synchronized (this) {
+					view = pendingView;
+					if (view == null) break;
+					pendingView = null;
+					buffer = spareBuffer;
+					spareBuffer = null;
+				}
+				final ScreenFrame frame = ScreenFrame.project(view, buffer);
+				if (frame != null) publish(frame);
+				else {
+					// NB: The view moved on while being mapped; its redraw follows.
+					synchronized (this) {
+						if (spareBuffer == null) spareBuffer = buffer;
+					}
+				}
+			}
+		}
+		catch (final RuntimeException exc) {
+			log.error("Error projecting " + display.getName(), exc);
+		}
+		finally {
+			synchronized (this) {
+				projecting = false;
+				notifyAll();
+			}
+		}
+	}
+
+	/** Hands a finished frame to the EDT, replacing any frame not yet shown. */
+	private void publish(final ScreenFrame frame) {
+		synchronized (this) {
+			// NB: A superseded frame is simply dropped; its buffer is not reused,
+			// since the canvas may have picked it up while rebuilding.
+			latestFrame = frame;
+			pendingFrame = frame;
+			if (publishPending) return;
+			publishPending = true;
+		}
+		threadService.queue(new Runnable() {
+
+			@Override
+			public void run() {
+				showFrame();
+			}
+		});
+	}
+
+	/** Shows the latest published frame; called on the EDT. */
+	private void showFrame() {
+		final ScreenFrame frame;
+		synchronized (this) {
+			frame = pendingFrame;
+			pendingFrame = null;
+			publishPending = false;
+		}
+		if (frame == null) return;
+		final boolean shown = displayViewer.getCanvas().showFrame(frame);
+		synchronized (this) {
+			if (!shown) return;
+			// NB: The canvas has let go of the previous frame of the same view;
+			// unless a capture still reads it, its buffer can be reused.
+			if (shownFrame != null && shownFrame.getView() == frame.getView() &&
+				shownFrame.getBuffer() != frame.getBuffer() &&
+				shownFrame.getBuffer() != null && !shownFrame.isPinned())
+			{
+				spareBuffer = shownFrame.getBuffer();
+			}
+			shownFrame = frame;
+		}
+	}
+
+	/**
+	 * Records the latest value of a dragged slider. The display follows at the
+	 * rate at which frames can be rendered, skipping intermediate values.
+	 */
+	private void scrub(final AxisType axis, final int value) {
+		scrubPositions.put(axis, value);
+		if (!scrubTimer.isRunning()) {
+			displayViewer.getCanvas().setScrubbing(true);
+			scrubTimer.start();
+		}
+		if (scrubPreview) displayViewer.getCanvas().showPreview(axis, value);
+	}
+
+	/** Applies the latest scrubbed positions, unless a frame is in progress. */
+	private void scrubStep() {
+		synchronized (this) {
+			if (projecting || publishPending) return;
+		}
+		if (scrubPositions.isEmpty()) return;
+		applyScrubPositions();
+	}
+
+	/** Stops scrubbing and renders the final slider value at full resolution. */
+	private void endScrub(final AxisType axis, final int value) {
+		scrubPositions.remove(axis);
+		if (scrubTimer.isRunning()) {
+			scrubTimer.stop();
+			applyScrubPositions();
+			displayViewer.getCanvas().setScrubbing(false);
+		}
+		display.setPosition(value, axis);
+	}
+
+	private void applyScrubPositions() {
+		final Map<AxisType, Integer> positions = new HashMap<>(scrubPositions);
+		scrubPositions.clear();
+		for (final Map.Entry<AxisType, Integer> entry : positions.entrySet()) {
+			display.setPosition(entry.getValue(), entry.getKey());
+		}
+	}
+
 	private void createSliders() {
 		// remove obsolete sliders
 		for (final AxisType axis : axisSliders.keySet()) {
@@ -257,7 +506,8 @@ public class SwingImageDisplayPanel extends JPanel implements ImageDisplayPanel
 
 					@Override
 					public void adjustmentValueChanged(final AdjustmentEvent e) {
-						display.setPosition(slider.getValue(), axis);
+						if (e.getValueIsAdjusting()) scrub(axis, slider.getValue());
+						else endScrub(axis, slider.getValue());
 					}
 				});
 				axisSliders.put(axis, slider);
@@ -309,7 +559,10 @@ public class SwingImageDisplayPanel extends JPanel implements ImageDisplayPanel
 		final int value = (int) display.getLongPosition(axis);
 		if (axis == Axes.CHANNEL) updateColorBar(value);
 		final JScrollBar scrollBar = axisSliders.get(axis);
-		if (scrollBar != null) scrollBar.setValue(value);
+		// NB: A slider being dragged is ahead of the display; leave it be.
+		if (scrollBar != null && !scrollBar.getValueIsAdjusting()) {
+			scrollBar.setValue(value);
+		}
 		getDisplay().update();
 	}
 
@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.viewer.image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import net.imagej.Dataset;
+import net.imagej.axis.Axes;
+import net.imagej.display.DatasetView;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.converter.Converter;
+import net.imglib2.display.projector.composite.CompositeXYProjector;
+import net.imglib2.display.screenimage.awt.ARGBScreenImage;
+import net.imglib2.view.Views;
+
+/**
+ * Projects rectangular regions of a plane of a {@link DatasetView}, at full or
+ * reduced resolution, through the view's own converters. Used for planes too
+ * large to be projected whole, so that only the visible tiles are ever
+ * projected.
+ * <p>
+ * Reduced resolutions sample every 2<sup>level</sup>th pixel of the data,
+ * rather than averaging as {@link ScreenImagePyramid} does, so that the cost of
+ * a tile does not grow with the zoom level.
+ * </p>
+ */
+public class TileProjector {
+
+	private final DatasetView view;
+
+	public TileProjector(final DatasetView view) {
+		this.view = view;
+	}
+
+	// -- TileProjector methods --
+
+	/**
+	 * Projects a region of the given plane. May be called from any thread.
+	 * 
+	 * @param position position of the plane along the non-XY axes
+	 * @param level resolution level; each projected pixel spans 2<sup>level</sup>
+	 *          data pixels along X and Y
+	 * @param x left edge of the region, in pixels of the level
+	 * @param y top edge of the region, in pixels of the level
+	 * @param width width of the region, in pixels of the level
+	 * @param height height of the region, in pixels of the level
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public ScreenBuffer project(final long[] position, final int level,
+		final long x, final long y, final int width, final int height)
+	{
+		final Dataset dataset = view.getData();
+		final int n = dataset.numDimensions();
+		RandomAccessibleInterval source = dataset.getImgPlus();
+		if (level > 0) {
+			final long[] steps = new long[n];
+			Arrays.fill(steps, 1);
+			steps[0] = steps[1] = 1L << level;
+			source = Views.subsample(source, steps);
+		}
+		// NB: The projector maps the source region under its target's interval.
+		final long[] offset = new long[n];
+		offset[0] = -x;
+		offset[1] = -y;
+		source = Views.translate(source, offset);
+
+		final ScreenBuffer buffer = new ScreenBuffer(width, height);
+		final ARGBScreenImage target =
+			new ARGBScreenImage(width, height, buffer.getPixels());
+		final ArrayList<Converter> converters =
+			new ArrayList<Converter>(view.getConverters());
+		final CompositeXYProjector projector = new CompositeXYProjector(source,
+			target, converters, dataset.dimensionIndex(Axes.CHANNEL));
+		final CompositeXYProjector<?> viewProjector = view.getProjector();
+		projector.setComposite(viewProjector != null && viewProjector
+			.isComposite());
+		for (int i = 0; i < position.length; i++) {
+			projector.setPosition(position[i], i + 2);
+		}
+		projector.map();
+		return buffer;
+	}
+
+}
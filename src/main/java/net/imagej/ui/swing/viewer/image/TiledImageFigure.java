@@ -0,0 +1,699 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.viewer.image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import net.imagej.ui.swing.viewer.image.ScreenImagePyramid.Level;
+
+import org.jhotdraw.draw.AbstractAttributedFigure;
+
+/**
+ * A JHotDraw figure which renders a projected image plane as a grid of
+ * independently cached tiles. Only the tiles intersecting the visible region
+ * are materialized, so the memory footprint of the figure scales with the
+ * size of the screen rather than with the size of the image.
+ * <p>
+ * Tiles are cached in least-recently-used order, keyed on plane position, zoom
+ * level and color table version. When zoomed out, tiles are cut from the
+ * {@link ScreenImagePyramid} level nearest the current zoom factor.
+ * </p>
+ * <p>
+ * Alternately, in zero-copy mode, the figure draws the {@link BufferedImage}
+ * of the source {@link ScreenBuffer} directly, and an update of the pixels
+ * merely invalidates the affected area of the figure.
+ * </p>
+ * <p>
+ * Planes too large to be projected whole are set with
+ * {@link #setTiledPlane(int, int, long[], long)} instead. Their visible tiles
+ * are then loaded asynchronously by a {@link TileLoader}, at the level of the
+ * current zoom, and cached tiles of a coarser level or of the previous plane
+ * are drawn in their place until they arrive.
+ * </p>
+ */
+public class TiledImageFigure extends AbstractAttributedFigure {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Edge length of a tile, in screen pixels. */
+	public static final int TILE_SIZE = 256;
+
+	/** Minimum number of tiles retained, regardless of viewport size. */
+	private static final int MIN_CACHED_TILES = 16;
+
+	private Rectangle2D.Double bounds = new Rectangle2D.Double();
+
+	private transient TileCache tiles = new TileCache();
+
+	/** ARGB pixels of the currently projected plane. */
+	private transient ScreenBuffer pixels;
+	private int pixelsWidth;
+	private int pixelsHeight;
+
+	/** Whether the current plane is loaded tile by tile rather than set whole. */
+	private boolean tiled;
+
+	private long[] planePosition = new long[0];
+	private long lutVersion;
+
+	/** Plane shown before the current one, whose tiles stand in meanwhile. */
+	private long[] previousPosition;
+	private long previousVersion;
+
+	/** Loads the tiles of a tiled plane. */
+	private transient TileLoader tileLoader;
+
+	/** Tiles requested from the loader which have not arrived yet. */
+	private transient Set<TileKey> pendingTiles = new HashSet<>();
+
+	/** Visible region of the drawing, in data coordinates. */
+	private Rectangle2D.Double viewport;
+
+	/** Whether to draw straight from the source pixels, without tiling. */
+	private boolean zeroCopy;
+
+	/** Downsampled levels of the source pixels, for zoomed out display. */
+	private transient ScreenImagePyramid pyramid = new ScreenImagePyramid();
+
+	/** Coarse level of another plane, drawn instead of the pixels if set. */
+	private transient Level preview;
+
+	/** Position of the plane shown by {@link #preview}. */
+	private long[] previewPosition;
+
+	// -- TiledImageFigure methods --
+
+	/**
+	 * Sets the source pixels to render. Buffers of the same size are swapped
+	 * without a change of geometry, and the figure is only repainted if the
+	 * pixels show another plane or color table version than before.
+	 * 
+	 * @param buffer the projected plane
+	 * @param position position of the plane along the non-XY axes
+	 * @param version color table version with which the pixels were projected
+	 */
+	public void setPixels(final ScreenBuffer buffer, final long[] position,
+		final long version)
+	{
+		final boolean changedContent = setPlane(position, version);
+		getPyramid().setPlane(position, version, buffer);
+		final int width = buffer.getWidth(), height = buffer.getHeight();
+		if (!tiled && pixels != null && width == pixelsWidth &&
+			height == pixelsHeight)
+		{
+			// NB: The geometry is unchanged; at most the visible pixels are dirty.
+			pixels = buffer;
+			if (changedContent) invalidatePixels(getVisibleBounds());
+			return;
+		}
+		willChange();
+		pixels = buffer;
+		tiled = false;
+		pixelsWidth = width;
+		pixelsHeight = height;
+		bounds.setRect(0, 0, width, height);
+		changed();
+	}
+
+	/**
+	 * Sets a plane which is too large to be projected whole. Its tiles are
+	 * requested from the {@link TileLoader} as they become visible.
+	 * 
+	 * @param width width of the plane in pixels
+	 * @param height height of the plane in pixels
+	 * @param position position of the plane along the non-XY axes
+	 * @param version color table version with which to project the tiles
+	 */
+	public void setTiledPlane(final int width, final int height,
+		final long[] position, final long version)
+	{
+		final boolean changedContent = setPlane(position, version);
+		if (tiled && width == pixelsWidth && height == pixelsHeight) {
+			if (changedContent) invalidatePixels(getVisibleBounds());
+			return;
+		}
+		willChange();
+		pixels = null;
+		tiled = true;
+		pixelsWidth = width;
+		pixelsHeight = height;
+		bounds.setRect(0, 0, width, height);
+		changed();
+	}
+
+	/** Sets the loader which projects the tiles of tiled planes. */
+	public void setTileLoader(final TileLoader tileLoader) {
+		this.tileLoader = tileLoader;
+	}
+
+	/**
+	 * Hands over a tile requested from the {@link TileLoader}, and repaints it
+	 * if it belongs to the current plane. Called on the EDT.
+	 * 
+	 * @param tile the requested tile
+	 * @param image the projected tile, or null if it could not be projected
+	 */
+	public void putTile(final Tile tile, final BufferedImage image) {
+		if (pendingTiles != null) pendingTiles.remove(tile.key);
+		if (image == null) return;
+		if (tiles == null) tiles = new TileCache();
+		tiles.put(tile.key, image);
+		if (tile.key.version == lutVersion &&
+			Arrays.equals(tile.key.position, planePosition))
+		{
+			final double extent = (double) TILE_SIZE << tile.key.level;
+			final Rectangle2D.Double dirty = new Rectangle2D.Double(tile.key.x *
+				extent, tile.key.y * extent, extent, extent);
+			Rectangle2D.intersect(dirty, bounds, dirty);
+			invalidatePixels(dirty);
+		}
+	}
+
+	/**
+	 * Notifies the figure that the given region of its source pixels was
+	 * rewritten in place, in data coordinates.
+	 */
+	public void invalidatePixels(final Rectangle2D.Double dirty) {
+		fireAreaInvalidated(dirty);
+	}
+
+	/**
+	 * Sets whether the figure draws straight from the source pixel array
+	 * (zero-copy mode) rather than from cached tiles.
+	 */
+	public void setZeroCopy(final boolean zeroCopy) {
+		if (this.zeroCopy == zeroCopy) return;
+		this.zeroCopy = zeroCopy;
+		if (zeroCopy) flushTiles();
+		fireAreaInvalidated();
+	}
+
+	/** Gets whether the figure draws straight from the source pixel array. */
+	public boolean isZeroCopy() {
+		return zeroCopy;
+	}
+
+	/** Sets the pyramid in which downsampled levels of the pixels are kept. */
+	public void setPyramid(final ScreenImagePyramid pyramid) {
+		this.pyramid = pyramid;
+		flushTiles();
+	}
+
+	/** Gets the pyramid in which downsampled levels of the pixels are kept. */
+	public ScreenImagePyramid getPyramid() {
+		if (pyramid == null) pyramid = new ScreenImagePyramid();
+		return pyramid;
+	}
+
+	/**
+	 * Shows a coarse level of another plane in place of the current pixels,
+	 * until that plane is set at full resolution.
+	 * 
+	 * @param level the level to show, or null to show the current pixels
+	 * @param position position of the previewed plane along the non-XY axes
+	 */
+	public void setPreview(final Level level, final long[] position) {
+		final boolean current = Arrays.equals(position, planePosition);
+		final Level newPreview = current ? null : level;
+		if (newPreview == preview) return;
+		preview = newPreview;
+		previewPosition = newPreview == null ? null : position.clone();
+		fireAreaInvalidated();
+	}
+
+	/** Gets the position of the current plane along the non-XY axes. */
+	public long[] getPlanePosition() {
+		return planePosition.clone();
+	}
+
+	/**
+	 * Sets the region of the drawing which is visible in the viewport, in data
+	 * coordinates. Tiles outside this region are neither built nor drawn.
+	 */
+	public void setViewport(final Rectangle2D.Double viewport) {
+		this.viewport = viewport;
+	}
+
+	/** Discards all cached tiles. */
+	public void flushTiles() {
+		if (tiles != null) tiles.clear();
+	}
+
+	// -- Figure methods --
+
+	@Override
+	public void draw(final Graphics2D g) {
+		if (pixels == null && !tiled) return;
+		if (tiles == null) tiles = new TileCache();
+		final Rectangle2D.Double visible = getVisibleRegion(g);
+		if (visible == null) return;
+
+		final Level previewLevel = preview;
+		if (previewLevel != null) {
+			// NB: Smooth the preview, since it is magnified at least twofold.
+			final Graphics2D pg = (Graphics2D) g.create();
+			pg.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+				RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			drawWrapped(pg, visible, previewLevel);
+			pg.dispose();
+			return;
+		}
+
+		final double zoom = Math.abs(g.getTransform().getScaleX());
+		final int levelIndex = ScreenImagePyramid.getLevelForZoom(zoom);
+		if (tiled) {
+			final int levelCount =
+				ScreenImagePyramid.getLevelCount(pixelsWidth, pixelsHeight);
+			drawLoadedTiles(g, visible, Math.min(levelIndex, levelCount - 1));
+			return;
+		}
+		final Level level = getPyramid().getLevel(levelIndex);
+		if (level == null) return;
+
+		if (zeroCopy) drawWrapped(g, visible, level);
+		else drawTiles(g, visible, level);
+	}
+
+	@Override
+	protected void drawFill(final Graphics2D g) {
+		// NB: Handled by draw(Graphics2D).
+	}
+
+	@Override
+	protected void drawStroke(final Graphics2D g) {
+		// NB: Image figures have no outline.
+	}
+
+	@Override
+	public boolean contains(final Point2D.Double p) {
+		return bounds.contains(p);
+	}
+
+	@Override
+	public Rectangle2D.Double getBounds() {
+		return (Rectangle2D.Double) bounds.clone();
+	}
+
+	@Override
+	public void setBounds(final Point2D.Double anchor, final Point2D.Double lead)
+	{
+		bounds.x = Math.min(anchor.x, lead.x);
+		bounds.y = Math.min(anchor.y, lead.y);
+		bounds.width = Math.abs(lead.x - anchor.x);
+		bounds.height = Math.abs(lead.y - anchor.y);
+	}
+
+	@Override
+	public void transform(final AffineTransform tx) {
+		// NB: The image is always aligned with the data coordinate system.
+	}
+
+	@Override
+	public Object getTransformRestoreData() {
+		return bounds.clone();
+	}
+
+	@Override
+	public void restoreTransformTo(final Object geometry) {
+		bounds.setRect((Rectangle2D.Double) geometry);
+	}
+
+	@Override
+	public TiledImageFigure clone() {
+		final TiledImageFigure that = (TiledImageFigure) super.clone();
+		that.bounds = (Rectangle2D.Double) bounds.clone();
+		that.tiles = new TileCache();
+		that.pendingTiles = new HashSet<>();
+		that.pyramid = new ScreenImagePyramid();
+		that.preview = null;
+		that.previewPosition = null;
+		return that;
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Records the position and version of a newly set plane.
+	 * 
+	 * @return whether they differ from those of the previous plane
+	 */
+	private boolean setPlane(final long[] position, final long version) {
+		final boolean changedContent =
+			version != lutVersion || !Arrays.equals(position, planePosition);
+		if (changedContent) {
+			previousPosition = planePosition;
+			previousVersion = lutVersion;
+		}
+		planePosition = position.clone();
+		lutVersion = version;
+		if (preview != null && Arrays.equals(position, previewPosition)) {
+			// NB: The previewed plane has arrived at full resolution.
+			preview = null;
+			previewPosition = null;
+		}
+		return changedContent;
+	}
+
+	/** Gets the part of the image within the viewport, in data coordinates. */
+	private Rectangle2D.Double getVisibleBounds() {
+		final Rectangle2D.Double region = getBounds();
+		if (viewport != null) Rectangle2D.intersect(region, viewport, region);
+		return region;
+	}
+
+	/**
+	 * Gets the region of the image which needs to be painted: the intersection
+	 * of the image bounds, the viewport and the clip of the graphics context.
+	 */
+	private Rectangle2D.Double getVisibleRegion(final Graphics2D g) {
+		final Rectangle2D.Double region =
+			new Rectangle2D.Double(0, 0, pixelsWidth, pixelsHeight);
+		if (viewport != null) Rectangle2D.intersect(region, viewport, region);
+		final Shape clip = g.getClip();
+		if (clip != null) Rectangle2D.intersect(region, clip.getBounds2D(), region);
+		return region.isEmpty() ? null : region;
+	}
+
+	/** Draws the visible region straight from the pixels of the given level. */
+	private void drawWrapped(final Graphics2D g,
+		final Rectangle2D.Double visible, final Level level)
+	{
+		final int scale = level.getScale();
+		final int x1 = (int) Math.floor(visible.x / scale);
+		final int y1 = (int) Math.floor(visible.y / scale);
+		final int x2 =
+			(int) Math.min(level.getWidth(), Math.ceil(visible.getMaxX() / scale));
+		final int y2 =
+			(int) Math.min(level.getHeight(), Math.ceil(visible.getMaxY() / scale));
+		g.drawImage(level.getImage(), x1 * scale, y1 * scale, x2 * scale,
+			y2 * scale, x1, y1, x2, y2, null);
+	}
+
+	/** Draws the tiles of the given level which intersect the visible region. */
+	private void drawTiles(final Graphics2D g, final Rectangle2D.Double visible,
+		final Level level)
+	{
+		final int scale = level.getScale();
+		final double extent = (double) TILE_SIZE * scale;
+		final int tx0 = (int) Math.floor(visible.x / extent);
+		final int ty0 = (int) Math.floor(visible.y / extent);
+		final int tx1 = (int) Math.ceil(visible.getMaxX() / extent);
+		final int ty1 = (int) Math.ceil(visible.getMaxY() / extent);
+		tiles.ensureCapacity(2 * (tx1 - tx0) * (ty1 - ty0));
+
+		for (int ty = ty0; ty < ty1; ty++) {
+			for (int tx = tx0; tx < tx1; tx++) {
+				final BufferedImage tile = getTile(tx, ty, level);
+				if (tile != null) drawTile(g, tile, tx, ty, level.getLevel());
+			}
+		}
+	}
+
+	/**
+	 * Draws the tiles of a tiled plane which intersect the visible region at
+	 * the given level, requesting those not loaded yet.
+	 */
+	private void drawLoadedTiles(final Graphics2D g,
+		final Rectangle2D.Double visible, final int level)
+	{
+		final double extent = (double) TILE_SIZE << level;
+		final int tx0 = (int) Math.floor(visible.x / extent);
+		final int ty0 = (int) Math.floor(visible.y / extent);
+		final int tx1 = (int) Math.ceil(visible.getMaxX() / extent);
+		final int ty1 = (int) Math.ceil(visible.getMaxY() / extent);
+		tiles.ensureCapacity(2 * (tx1 - tx0) * (ty1 - ty0));
+
+		for (int ty = ty0; ty < ty1; ty++) {
+			for (int tx = tx0; tx < tx1; tx++) {
+				final TileKey key =
+					new TileKey(planePosition, level, lutVersion, tx, ty);
+				final BufferedImage tile = tiles.get(key);
+				if (tile != null) drawTile(g, tile, tx, ty, level);
+				else {
+					requestTile(key);
+					drawStandIn(g, tx, ty, level);
+				}
+			}
+		}
+	}
+
+	/** Asks the loader for the given tile, unless it was asked already. */
+	private void requestTile(final TileKey key) {
+		if (tileLoader == null) return;
+		if (pendingTiles == null) pendingTiles = new HashSet<>();
+		if (!pendingTiles.add(key)) return;
+		// NB: Levels are rounded up in size, as the pyramid's are.
+		final int scale = 1 << key.level;
+		final int levelWidth = (pixelsWidth + scale - 1) / scale;
+		final int levelHeight = (pixelsHeight + scale - 1) / scale;
+		final int x0 = key.x * TILE_SIZE, y0 = key.y * TILE_SIZE;
+		final int w = Math.min(TILE_SIZE, levelWidth - x0);
+		final int h = Math.min(TILE_SIZE, levelHeight - y0);
+		if (x0 < 0 || y0 < 0 || w <= 0 || h <= 0) {
+			pendingTiles.remove(key);
+			return;
+		}
+		tileLoader.loadTile(new Tile(key, x0, y0, w, h));
+	}
+
+	/**
+	 * Draws the best cached substitute for a tile which is still loading: the
+	 * tile of a coarser level which covers it, or else the same tile of the
+	 * previous plane.
+	 */
+	private void drawStandIn(final Graphics2D g, final int tx, final int ty,
+		final int level)
+	{
+		final double extent = (double) TILE_SIZE << level;
+		final Graphics2D sg = (Graphics2D) g.create();
+		try {
+			sg.clip(new Rectangle2D.Double(tx * extent, ty * extent, extent,
+				extent));
+			final int levelCount =
+				ScreenImagePyramid.getLevelCount(pixelsWidth, pixelsHeight);
+			for (int coarser = level + 1; coarser < levelCount; coarser++) {
+				final int shift = coarser - level;
+				final BufferedImage tile = tiles.get(new TileKey(planePosition,
+					coarser, lutVersion, tx >> shift, ty >> shift));
+				if (tile != null) {
+					drawTile(sg, tile, tx >> shift, ty >> shift, coarser);
+					return;
+				}
+			}
+			if (previousPosition == null) return;
+			final BufferedImage tile = tiles.get(new TileKey(previousPosition,
+				level, previousVersion, tx, ty));
+			if (tile != null) drawTile(sg, tile, tx, ty, level);
+		}
+		finally {
+			sg.dispose();
+		}
+	}
+
+	/** Draws a tile of the given level at its place in data coordinates. */
+	private void drawTile(final Graphics2D g, final BufferedImage tile,
+		final int tx, final int ty, final int level)
+	{
+		final int scale = 1 << level;
+		final double extent = (double) TILE_SIZE * scale;
+		final AffineTransform xform =
+			AffineTransform.getTranslateInstance(tx * extent, ty * extent);
+		xform.scale(scale, scale);
+		g.drawImage(tile, xform, null);
+	}
+
+	private BufferedImage getTile(final int tx, final int ty, final Level level)
+	{
+		final TileKey key =
+			new TileKey(planePosition, level.getLevel(), lutVersion, tx, ty);
+		BufferedImage tile = tiles.get(key);
+		if (tile == null) {
+			tile = createTile(tx, ty, level);
+			if (tile != null) tiles.put(key, tile);
+		}
+		return tile;
+	}
+
+	/** Copies the given tile out of a level of the projected plane. */
+	private BufferedImage createTile(final int tx, final int ty,
+		final Level level)
+	{
+		final int levelWidth = level.getWidth();
+		final int x0 = tx * TILE_SIZE, y0 = ty * TILE_SIZE;
+		final int w = Math.min(TILE_SIZE, levelWidth - x0);
+		final int h = Math.min(TILE_SIZE, level.getHeight() - y0);
+		if (x0 < 0 || y0 < 0 || w <= 0 || h <= 0) return null;
+
+		final int[] src = level.getPixels();
+		final BufferedImage tile =
+			new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		final WritableRaster raster = tile.getRaster();
+		final int[] row = new int[w];
+		for (int j = 0; j < h; j++) {
+			System.arraycopy(src, (y0 + j) * levelWidth + x0, row, 0, w);
+			raster.setDataElements(0, j, w, 1, row);
+		}
+		return tile;
+	}
+
+	// -- Helper classes --
+
+	/** Projects the tiles of planes which are too large to be set whole. */
+	public interface TileLoader {
+
+		/**
+		 * Starts loading the given tile. The loader hands the result to
+		 * {@link TiledImageFigure#putTile(Tile, BufferedImage)} on the EDT, even
+		 * if it failed.
+		 */
+		void loadTile(Tile tile);
+	}
+
+	/** A tile of a plane to be loaded, in pixels of its level. */
+	public static final class Tile {
+
+		private final TileKey key;
+		private final int x, y, width, height;
+
+		private Tile(final TileKey key, final int x, final int y,
+			final int width, final int height)
+		{
+			this.key = key;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		/** Gets the position of the tile's plane along the non-XY axes. */
+		public long[] getPosition() {
+			return key.position.clone();
+		}
+
+		/** Gets the resolution level of the tile; 0 is full resolution. */
+		public int getLevel() {
+			return key.level;
+		}
+
+		public int getX() {
+			return x;
+		}
+
+		public int getY() {
+			return y;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+	}
+
+	/** Identifies a tile of a particular plane, zoom and color table. */
+	private static final class TileKey {
+
+		private final long[] position;
+		private final int level;
+		private final long version;
+		private final int x, y;
+		private final int hash;
+
+		private TileKey(final long[] position, final int level,
+			final long version, final int x, final int y)
+		{
+			this.position = position;
+			this.level = level;
+			this.version = version;
+			this.x = x;
+			this.y = y;
+			int h = Arrays.hashCode(position);
+			h = 31 * h + level;
+			h = 31 * h + Long.hashCode(version);
+			h = 31 * h + x;
+			h = 31 * h + y;
+			hash = h;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof TileKey)) return false;
+			final TileKey that = (TileKey) o;
+			return x == that.x && y == that.y && version == that.version &&
+				level == that.level && Arrays.equals(position, that.position);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/** Least-recently-used cache of tiles, bounded by the viewport size. */
+	private static final class TileCache extends
+		LinkedHashMap<TileKey, BufferedImage>
+	{
+
+		private static final long serialVersionUID = 1L;
+
+		private int capacity = MIN_CACHED_TILES;
+
+		private TileCache() {
+			super(MIN_CACHED_TILES, 0.75f, true);
+		}
+
+		private void ensureCapacity(final int tileCount) {
+			capacity = Math.max(MIN_CACHED_TILES, tileCount);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(
+			final Map.Entry<TileKey, BufferedImage> eldest)
+		{
+			return size() > capacity;
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ui.swing.overlay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+
+import org.junit.Test;
+import org.scijava.util.ColorRGB;
+
+/**
+ * Tests {@link FigureAttributes}.
+ */
+public class FigureAttributesTest {
+
+	@Test
+	public void testConstants() {
+		assertNotNull(FigureAttributes.ARROW_TIP);
+		assertEquals(new Color(0, 0, 0, 0), FigureAttributes.TRANSPARENT);
+		assertSame(FigureAttributes.TRANSPARENT, FigureAttributes.getColor(0, 0, 0,
+			0));
+	}
+
+	@Test
+	public void testInterning() {
+		final Color c = FigureAttributes.getColor(10, 20, 30, 40);
+		assertEquals(new Color(10, 20, 30, 40), c);
+		assertSame(c, FigureAttributes.getColor(10, 20, 30, 40));
+		assertSame(c, FigureAttributes.getColor(new ColorRGB(10, 20, 30), 40));
+		assertEquals(new Color(10, 20, 30, 255), FigureAttributes.getColor(
+			new ColorRGB(10, 20, 30)));
+		assertNull(FigureAttributes.getColor(null));
+		assertNull(FigureAttributes.getColor(null, 0));
+	}
+
+	@Test
+	public void testBounded() {
+		for (int i = 0; i < FigureAttributes.MAX_COLORS + 10; i++) {
+			final int v = i & 0xff, w = (i >> 8) & 0xff;
+			assertEquals(new Color(v, w, 7, 99), FigureAttributes.getColor(v, w, 7,
+				99));
+		}
+	}
+
+}
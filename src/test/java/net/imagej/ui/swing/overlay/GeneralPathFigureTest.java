@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.overlay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.awt.Color;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+import org.jhotdraw.draw.AttributeKeys;
+import org.jhotdraw.draw.BezierFigure;
+import org.junit.Test;
+
+/**
+ * Tests {@link GeneralPathFigure}.
+ */
+public class GeneralPathFigureTest {
+
+	@Test
+	public void testGeometryVersion() {
+		final GeneralPath path = new GeneralPath();
+		path.append(new Rectangle2D.Double(1, 2, 3, 4), false);
+		final GeneralPathFigure figure = new GeneralPathFigure();
+		figure.setGeneralPath(path);
+
+		// attribute edits leave the geometry alone
+		long version = figure.getGeometryVersion();
+		figure.willChange();
+		figure.set(AttributeKeys.FILL_COLOR, Color.red);
+		figure.changed();
+		assertEquals(version, figure.getGeometryVersion());
+		assertEquals(4, figure.getBounds().getMaxX(), 1e-9);
+
+		// transforms do not
+		figure.willChange();
+		figure.transform(AffineTransform.getTranslateInstance(10, 0));
+		figure.changed();
+		assertNotEquals(version, figure.getGeometryVersion());
+		assertEquals(14, figure.getBounds().getMaxX(), 1e-9);
+
+		version = figure.getGeometryVersion();
+		figure.setGeneralPath(path);
+		assertNotEquals(version, figure.getGeometryVersion());
+		assertEquals(4, figure.getBounds().getMaxX(), 1e-9);
+	}
+
+	@Test
+	public void testChildGeometryVersion() {
+		final GeneralPath path = new GeneralPath();
+		path.append(new Rectangle2D.Double(1, 2, 3, 4), false);
+		path.append(new Rectangle2D.Double(10, 20, 3, 4), false);
+		final GeneralPathFigure figure = new GeneralPathFigure();
+		figure.setGeneralPath(path);
+		final List<BezierFigure> children = figure.getChildren();
+		assertEquals(2, children.size());
+		final long first = figure.getGeometryVersion(children.get(0));
+		final long second = figure.getGeometryVersion(children.get(1));
+
+		// editing one child leaves the other alone
+		final BezierFigure child = children.get(1);
+		child.willChange();
+		child.transform(AffineTransform.getTranslateInstance(5, 0));
+		child.changed();
+		assertEquals(first, figure.getGeometryVersion(children.get(0)));
+		assertNotEquals(second, figure.getGeometryVersion(child));
+		assertEquals(18, figure.getBounds().getMaxX(), 1e-9);
+
+		// transforming the whole figure changes all of them
+		figure.willChange();
+		figure.transform(AffineTransform.getTranslateInstance(1, 0));
+		figure.changed();
+		assertNotEquals(first, figure.getGeometryVersion(children.get(0)));
+	}
+
+}
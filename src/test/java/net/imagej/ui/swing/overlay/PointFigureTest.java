@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.overlay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jhotdraw.draw.AttributeKeys;
+import org.junit.Test;
+
+/**
+ * Tests {@link PointFigure}.
+ */
+public class PointFigureTest {
+
+	@Test
+	public void testPackedPoints() {
+		final PointFigure figure = new PointFigure();
+		figure.setPoints(new double[] { 5, 6, 1, 9, 3, 2 }, 2);
+		assertEquals(2, figure.getPointCount());
+		assertEquals(1, figure.getPointX(1), 0);
+		assertEquals(9, figure.getPointY(1), 0);
+		final Rectangle2D bounds = figure.getBounds();
+		assertEquals(1, bounds.getX(), 0);
+		assertEquals(6, bounds.getY(), 0);
+		assertEquals(4.1, bounds.getWidth(), 1e-9);
+		assertEquals(3.1, bounds.getHeight(), 1e-9);
+
+		final List<double[]> points = figure.getPoints();
+		assertEquals(2, points.size());
+		assertEquals(5, points.get(0)[0], 0);
+		assertEquals(6, points.get(0)[1], 0);
+	}
+
+	@Test
+	public void testMove() {
+		final PointFigure figure = new PointFigure(new double[] { 10, 20 });
+		figure.move(30, -40);
+		assertEquals(40, figure.getPointX(0), 0);
+		assertEquals(-20, figure.getPointY(0), 0);
+		assertTrue(figure.contains(new Point2D.Double(40, -20)));
+		assertFalse(figure.contains(new Point2D.Double(10, 20)));
+
+		// setting the same points again must not undo the move
+		figure.setPoints(new double[] { 40, -20 }, 1);
+		assertEquals(40, figure.getX(), 0);
+		assertEquals(-20, figure.getY(), 0);
+	}
+
+	@Test
+	public void testContains() {
+		final Random random = new Random(0xdecaf);
+		final int count = 2000;
+		final double[] xy = new double[2 * count];
+		for (int i = 0; i < xy.length; i++) {
+			xy[i] = 1000 * random.nextDouble();
+		}
+		final PointFigure figure = new PointFigure();
+		figure.setPoints(xy, count);
+		figure.move(-50, 25);
+
+		final double grow = AttributeKeys.getPerpendicularHitGrowth(figure) + 1;
+		for (int q = 0; q < 2000; q++) {
+			final Point2D.Double p = new Point2D.Double(1100 * random.nextDouble() -
+				100, 1100 * random.nextDouble() - 100);
+			boolean expected = false;
+			for (int i = 0; i < count; i++) {
+				final double px = figure.getPointX(i), py = figure.getPointY(i);
+				if (p.x >= px - grow && p.x < px + 1 + grow && p.y >= py - grow &&
+					p.y < py + 1 + grow)
+				{
+					expected = true;
+					break;
+				}
+			}
+			assertEquals(expected, figure.contains(p));
+		}
+	}
+
+	@Test
+	public void testDrawClipped() {
+		final List<double[]> points = new ArrayList<>();
+		points.add(new double[] { 10, 10 });
+		points.add(new double[] { 50, 50 });
+		points.add(new double[] { 90, 90 });
+		final PointFigure figure = new PointFigure(points);
+
+		final BufferedImage image = new BufferedImage(100, 100,
+			BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D g = image.createGraphics();
+		g.setClip(40, 40, 20, 20);
+		figure.draw(g);
+		g.dispose();
+
+		// only the marker inside the clip is drawn
+		assertEquals(Color.black.getRGB(), image.getRGB(48, 48));
+		assertEquals(Color.yellow.getRGB(), image.getRGB(50, 50));
+		assertEquals(0, image.getRGB(10, 10));
+		assertEquals(0, image.getRGB(90, 90));
+	}
+
+}
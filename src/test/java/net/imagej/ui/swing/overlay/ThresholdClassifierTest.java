@@ -0,0 +1,178 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.overlay;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Rectangle;
+
+import net.imagej.Dataset;
+import net.imagej.DatasetService;
+import net.imagej.axis.Axes;
+import net.imagej.axis.AxisType;
+import net.imglib2.RandomAccess;
+import net.imglib2.type.numeric.RealType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Tests {@link ThresholdClassifier}.
+ */
+public class ThresholdClassifierTest {
+
+	private static final int WIDTH = 100, HEIGHT = 300;
+
+	private static final double MIN = 20, MAX = 60;
+
+	private static final int[] PALETTE = { 0, 10, 20, 30 };
+
+	private Context context;
+	private Dataset dataset;
+
+	@Before
+	public void setUp() {
+		context = new Context(DatasetService.class, ThreadService.class);
+		dataset = context.service(DatasetService.class).create(new long[] {
+			WIDTH, HEIGHT }, "values", new AxisType[] { Axes.X, Axes.Y }, 32, true,
+			true);
+		final RandomAccess<? extends RealType<?>> access = dataset.randomAccess();
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				access.setPosition(x, 0);
+				access.setPosition(y, 1);
+				access.get().setReal(getValue(x, y));
+			}
+		}
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testSample() {
+		final ThresholdClassifier classifier = new ThresholdClassifier(null);
+		assertEquals(ThresholdClassifier.NONE, classify(classifier, 0, 0));
+		assertEquals(ThresholdClassifier.LESS, classify(classifier, 19, 0));
+		assertEquals(ThresholdClassifier.WITHIN, classify(classifier, 20, 0));
+		assertEquals(ThresholdClassifier.WITHIN, classify(classifier, 60, 0));
+		assertEquals(ThresholdClassifier.GREATER, classify(classifier, 61, 0));
+	}
+
+	@Test
+	public void testSerial() {
+		assertRegion(new ThresholdClassifier(null), new Rectangle(0, 0, WIDTH,
+			HEIGHT));
+		assertRegion(new ThresholdClassifier(null), new Rectangle(7, 13, 70, 5));
+	}
+
+	@Test
+	public void testParallel() {
+		final ThresholdClassifier classifier = new ThresholdClassifier(context
+			.service(ThreadService.class));
+		assertRegion(classifier, new Rectangle(0, 0, WIDTH, HEIGHT));
+		assertRegion(classifier, new Rectangle(3, 1, 65, HEIGHT - 2));
+	}
+
+	@Test
+	public void testStep() {
+		final ThresholdClassifier classifier = new ThresholdClassifier(context
+			.service(ThreadService.class));
+		assertRegion(classifier, new Rectangle(0, 0, WIDTH, HEIGHT), 3);
+		assertRegion(classifier, new Rectangle(7, 13, 70, 5), 4);
+		assertRegion(classifier, new Rectangle(1, 2, WIDTH - 1, HEIGHT - 2), 1);
+	}
+
+	// -- Helper methods --
+
+	/** Gets a value with NaNs and samples on both sides of the range. */
+	private static double getValue(final int x, final int y) {
+		final int v = (x + 3 * y) % 83;
+		return v == 0 ? Double.NaN : v;
+	}
+
+	private int classify(final ThresholdClassifier classifier, final int x,
+		final int y)
+	{
+		return classifier.classify(dataset, new long[] { x, y }, MIN, MAX);
+	}
+
+	/** Checks a region classification against the single sample one. */
+	private void assertRegion(final ThresholdClassifier classifier,
+		final Rectangle region)
+	{
+		final int[] out = new int[region.width * region.height];
+		final long[] bits = new long[ThresholdClassifier.getRowStride(
+			region.width) * region.height];
+		classifier.classify(dataset, new long[2], region, MIN, MAX, PALETTE, out,
+			bits);
+		assertSamples(classifier, region, 1, out, bits);
+	}
+
+	/** Checks a sampled region classification against the single sample one. */
+	private void assertRegion(final ThresholdClassifier classifier,
+		final Rectangle region, final int step)
+	{
+		final int w = ThresholdClassifier.getSampleCount(region.width, step);
+		final int h = ThresholdClassifier.getSampleCount(region.height, step);
+		final int[] out = new int[w * h];
+		final long[] bits = new long[ThresholdClassifier.getRowStride(w) * h];
+		classifier.classify(dataset, new long[2], region, step, MIN, MAX,
+			PALETTE, out, bits);
+		assertSamples(classifier, region, step, out, bits);
+	}
+
+	private void assertSamples(final ThresholdClassifier classifier,
+		final Rectangle region, final int step, final int[] out,
+		final long[] bits)
+	{
+		final int w = ThresholdClassifier.getSampleCount(region.width, step);
+		final int h = ThresholdClassifier.getSampleCount(region.height, step);
+		final int[] expected = new int[out.length];
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				final int c = classify(classifier, region.x + x * step, region.y +
+					y * step);
+				expected[y * w + x] = PALETTE[c];
+				assertEquals(c == ThresholdClassifier.WITHIN, ThresholdClassifier
+					.isSet(bits, w, x, y));
+			}
+		}
+		assertArrayEquals(expected, out);
+	}
+
+}
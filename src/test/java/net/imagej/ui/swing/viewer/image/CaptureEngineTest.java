@@ -0,0 +1,132 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.viewer.image;
+
+import static org.junit.Assert.assertEquals;
+
+import net.imagej.Dataset;
+import net.imagej.DatasetService;
+import net.imagej.ImgPlus;
+import net.imagej.axis.Axes;
+import net.imagej.axis.AxisType;
+import net.imglib2.RandomAccess;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.thread.ThreadService;
+
+/**
+ * Tests {@link CaptureEngine}.
+ */
+public class CaptureEngineTest {
+
+	private static final int WIDTH = 37, HEIGHT = 400, ROWS = 300, Y = 40;
+
+	private Context context;
+	private DatasetService datasetService;
+
+	@Before
+	public void setUp() {
+		context = new Context(DatasetService.class, ThreadService.class);
+		datasetService = context.service(DatasetService.class);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testPlanar() {
+		final Dataset dataset = datasetService.create(new long[] { WIDTH, HEIGHT,
+			3 }, "planar", new AxisType[] { Axes.X, Axes.Y, Axes.CHANNEL }, 8, false,
+			false);
+		assertCopied(dataset);
+	}
+
+	@Test
+	public void testArray() {
+		final Img<UnsignedByteType> img = ArrayImgs.unsignedBytes(WIDTH, HEIGHT, 3);
+		assertCopied(datasetService.create(new ImgPlus<>(img)));
+	}
+
+	@Test
+	public void testRandomAccess() {
+		final Img<UnsignedByteType> img = new CellImgFactory<>(
+			new UnsignedByteType(), 16).create(WIDTH, HEIGHT, 3);
+		assertCopied(datasetService.create(new ImgPlus<>(img)));
+	}
+
+	// -- Helper methods --
+
+	/** Copies a pattern both serially and in parallel, and checks the result. */
+	private void assertCopied(final Dataset dataset) {
+		final int[] argb = new int[WIDTH * ROWS];
+		for (int i = 0; i < argb.length; i++) {
+			argb[i] = 0xff000000 | (i * 7919) & 0xffffff;
+		}
+		new CaptureEngine(null).copyARGB(argb, WIDTH, ROWS, Y, dataset);
+		assertPattern(argb, dataset);
+
+		for (int i = 0; i < argb.length; i++) {
+			argb[i] ^= 0x00a5a5a5;
+		}
+		new CaptureEngine(context.service(ThreadService.class)).copyARGB(argb,
+			WIDTH, ROWS, Y, dataset);
+		assertPattern(argb, dataset);
+	}
+
+	private static void assertPattern(final int[] argb, final Dataset dataset) {
+		final RandomAccess<? extends RealType<?>> access = dataset.randomAccess();
+		for (int c = 0; c < 3; c++) {
+			final int shift = 16 - 8 * c;
+			access.setPosition(c, 2);
+			for (int y = 0; y < HEIGHT; y++) {
+				access.setPosition(y, 1);
+				for (int x = 0; x < WIDTH; x++) {
+					access.setPosition(x, 0);
+					final int row = y - Y;
+					final int expected = row < 0 || row >= ROWS ? 0
+						: (argb[row * WIDTH + x] >> shift) & 0xff;
+					assertEquals(expected, (int) access.get().getRealDouble());
+				}
+			}
+		}
+	}
+
+}
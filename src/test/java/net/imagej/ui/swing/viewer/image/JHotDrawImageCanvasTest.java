@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ui.swing.viewer.image;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import java.awt.GraphicsEnvironment;
+
+import net.imagej.Dataset;
+import net.imagej.DatasetService;
+import net.imagej.axis.Axes;
+import net.imagej.axis.AxisType;
+import net.imagej.display.DataView;
+import net.imagej.display.ImageDisplay;
+import net.imagej.overlay.RectangleOverlay;
+import net.imagej.ui.swing.sdi.viewer.SwingSdiImageDisplayViewer;
+
+import org.junit.After;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.display.DisplayService;
+import org.scijava.ui.swing.viewer.SwingDisplayWindow;
+
+/**
+ * Tests {@link JHotDrawImageCanvas}.
+ */
+public class JHotDrawImageCanvasTest {
+
+	private Context context;
+	private SwingSdiImageDisplayViewer viewer;
+
+	@After
+	public void tearDown() {
+		if (viewer != null) viewer.dispose();
+		if (context != null) context.dispose();
+	}
+
+	@Test
+	public void testPlaneChangeDoesNotResyncFigures() {
+		assumeFalse(GraphicsEnvironment.isHeadless());
+		context = new Context();
+		final Dataset dataset = context.service(DatasetService.class).create(
+			new long[] { 16, 16, 4 }, "planes", new AxisType[] { Axes.X, Axes.Y,
+				Axes.Z }, 8, false, false);
+		final ImageDisplay display = (ImageDisplay) context.service(
+			DisplayService.class).createDisplay(dataset);
+		final RectangleOverlay overlay = new RectangleOverlay(context);
+		display.display(overlay);
+
+		viewer = new SwingSdiImageDisplayViewer();
+		viewer.setContext(context);
+		viewer.view(new SwingDisplayWindow(), display);
+		final JHotDrawImageCanvas canvas = viewer.getCanvas();
+		canvas.rebuild();
+		canvas.update();
+
+		final OverlayFigureView figureView =
+			(OverlayFigureView) canvas.getFigureView(getView(display, overlay));
+		assertNotNull(figureView);
+		assertFalse(figureView.isDirty());
+
+		// a plane change updates every view, but leaves the overlay unchanged
+		display.setPosition(1, Axes.Z);
+		display.update();
+		assertFalse(figureView.isDirty());
+
+		// a change of the overlay itself does require a resync
+		overlay.update();
+		assertTrue(figureView.isDirty());
+	}
+
+	// -- Helper methods --
+
+	private static DataView getView(final ImageDisplay display,
+		final Object data)
+	{
+		for (final DataView view : display) {
+			if (view.getData() == data) return view;
+		}
+		return null;
+	}
+
+}
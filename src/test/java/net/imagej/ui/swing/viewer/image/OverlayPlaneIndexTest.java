@@ -0,0 +1,206 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ui.swing.viewer.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import net.imagej.Dataset;
+import net.imagej.DatasetService;
+import net.imagej.axis.Axes;
+import net.imagej.axis.AxisType;
+import net.imagej.display.DataView;
+import net.imagej.display.ImageDisplay;
+import net.imagej.display.ImageDisplayService;
+import net.imagej.display.OverlayService;
+import net.imagej.overlay.RectangleOverlay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scijava.Context;
+import org.scijava.display.DisplayService;
+
+/**
+ * Tests {@link OverlayPlaneIndex}.
+ */
+public class OverlayPlaneIndexTest {
+
+	private Context context;
+	private ImageDisplayService imageDisplayService;
+	private ImageDisplay display;
+
+	@Before
+	public void setUp() {
+		context = new Context(ImageDisplayService.class, DatasetService.class,
+			DisplayService.class, OverlayService.class);
+		imageDisplayService = context.service(ImageDisplayService.class);
+		final Dataset dataset = context.service(DatasetService.class).create(
+			new long[] { 16, 16, 4 }, "planes", new AxisType[] { Axes.X, Axes.Y,
+				Axes.Z }, 8, false, false);
+		display = (ImageDisplay) context.service(DisplayService.class)
+			.createDisplay(dataset);
+	}
+
+	@After
+	public void tearDown() {
+		context.dispose();
+	}
+
+	@Test
+	public void testPlaneChange() {
+		final OverlayPlaneIndex index = new OverlayPlaneIndex();
+		final TestMember a = addMember(0);
+		final TestMember b = addMember(1);
+		index.reindex(a);
+		index.reindex(b);
+		index.update(display);
+		assertEquals(Boolean.TRUE, a.visible);
+		assertEquals(Boolean.FALSE, b.visible);
+
+		display.setPosition(1, Axes.Z);
+		index.update(display);
+		assertEquals(Boolean.FALSE, a.visible);
+		assertEquals(Boolean.TRUE, b.visible);
+	}
+
+	@Test
+	public void testUnchangedPlaneTouchesNothing() {
+		final OverlayPlaneIndex index = new OverlayPlaneIndex();
+		final TestMember a = addMember(0);
+		index.reindex(a);
+		index.update(display);
+		final int calls = a.calls;
+		index.update(display);
+		assertEquals(calls, a.calls);
+	}
+
+	@Test
+	public void testReindexDuringPlaneChange() {
+		final OverlayPlaneIndex index = new OverlayPlaneIndex();
+		final TestMember a = addMember(1);
+		final TestMember b = addMember(0);
+		index.reindex(a);
+		index.reindex(b);
+		index.update(display);
+		assertEquals(Boolean.FALSE, a.visible);
+		assertEquals(Boolean.TRUE, b.visible);
+
+		// NB: b moves into a's hidden group in the same update which shows that
+		// group; b must never be hidden on the way.
+		b.getDataView().setPosition(1, Axes.Z);
+		display.setPosition(1, Axes.Z);
+		index.reindex(b);
+		index.update(display);
+		assertEquals(Boolean.TRUE, a.visible);
+		assertEquals(Boolean.TRUE, b.visible);
+		assertFalse(b.hiddenOnce);
+	}
+
+	@Test
+	public void testReindexIfMoved() {
+		final OverlayPlaneIndex index = new OverlayPlaneIndex();
+		final TestMember a = addMember(0);
+		index.reindex(a);
+		index.update(display);
+		final int calls = a.calls;
+
+		// NB: An update of an unmoved view does not touch it.
+		index.reindexIfMoved(a);
+		index.update(display);
+		assertEquals(calls, a.calls);
+
+		a.getDataView().setPosition(2, Axes.Z);
+		index.reindexIfMoved(a);
+		index.update(display);
+		assertEquals(Boolean.FALSE, a.visible);
+	}
+
+	@Test
+	public void testRemove() {
+		final OverlayPlaneIndex index = new OverlayPlaneIndex();
+		final TestMember a = addMember(0);
+		index.reindex(a);
+		index.update(display);
+		index.remove(a);
+		display.setPosition(2, Axes.Z);
+		index.update(display);
+		assertTrue(a.visible);
+	}
+
+	@Test
+	public void testRemovePending() {
+		final OverlayPlaneIndex index = new OverlayPlaneIndex();
+		final TestMember a = addMember(0);
+		index.reindex(a);
+		index.remove(a);
+		index.update(display);
+		assertNull(a.visible);
+	}
+
+	// -- Helper methods --
+
+	private TestMember addMember(final long z) {
+		final RectangleOverlay overlay = new RectangleOverlay(context);
+		final DataView view = imageDisplayService.createDataView(overlay);
+		display.add(view);
+		view.setPosition(z, Axes.Z);
+		return new TestMember(view);
+	}
+
+	// -- Helper classes --
+
+	private static class TestMember implements OverlayPlaneIndex.Member {
+
+		private final DataView view;
+		private Boolean visible;
+		private boolean hiddenOnce;
+		private int calls;
+
+		private TestMember(final DataView view) {
+			this.view = view;
+		}
+
+		@Override
+		public DataView getDataView() {
+			return view;
+		}
+
+		@Override
+		public void updateVisibility(final boolean visible) {
+			calls++;
+			if (Boolean.TRUE.equals(this.visible) && !visible) hiddenOnce = true;
+			this.visible = visible;
+		}
+	}
+
+}
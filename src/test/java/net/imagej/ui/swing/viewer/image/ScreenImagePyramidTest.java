@@ -0,0 +1,171 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.viewer.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import net.imagej.ui.swing.viewer.image.ScreenImagePyramid.Level;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ScreenImagePyramid}.
+ */
+public class ScreenImagePyramidTest {
+
+	private static final long[] PLANE_A = { 0 }, PLANE_B = { 1 };
+
+	@Test
+	public void testLevelForZoom() {
+		assertEquals(0, ScreenImagePyramid.getLevelForZoom(4));
+		assertEquals(0, ScreenImagePyramid.getLevelForZoom(1));
+		assertEquals(1, ScreenImagePyramid.getLevelForZoom(0.5));
+		assertEquals(2, ScreenImagePyramid.getLevelForZoom(0.25));
+		assertEquals(0, ScreenImagePyramid.getLevelForZoom(0));
+		assertEquals(0, ScreenImagePyramid.getLevelForZoom(Double.NaN));
+	}
+
+	@Test
+	public void testLevels() {
+		final ScreenImagePyramid pyramid = new ScreenImagePyramid();
+		assertEquals(0, pyramid.getLevelCount());
+		assertNull(pyramid.getLevel(0));
+
+		final int[] argb = new int[5 * 3];
+		pyramid.setPlane(PLANE_A, 0, new ScreenBuffer(argb, 5, 3));
+		// 5 x 3, 3 x 2, 2 x 1, 1 x 1
+		assertEquals(4, pyramid.getLevelCount());
+		assertSame(argb, pyramid.getLevel(0).getPixels());
+
+		final Level level = pyramid.getLevel(2);
+		assertEquals(2, level.getLevel());
+		assertEquals(4, level.getScale());
+		assertEquals(2, level.getWidth());
+		assertEquals(1, level.getHeight());
+
+		// requests beyond the coarsest level are clamped
+		assertEquals(3, pyramid.getLevel(10).getLevel());
+	}
+
+	@Test
+	public void testDownsample() {
+		final int[] argb = {
+			0xff000000, 0xff0000ff, 0x80ff0000, //
+			0xff00ff00, 0xff0000ff, 0x80ff0000 };
+		final ScreenImagePyramid pyramid = new ScreenImagePyramid();
+		pyramid.setPlane(PLANE_A, 0, new ScreenBuffer(argb, 3, 2));
+		final Level level = pyramid.getLevel(1);
+		assertEquals(2, level.getWidth());
+		assertEquals(1, level.getHeight());
+		// the odd column is averaged with itself
+		assertArrayEquals(new int[] { 0xff004080, 0x80ff0000 }, level.getPixels());
+	}
+
+	@Test
+	public void testPlaneCache() {
+		final ScreenImagePyramid pyramid = new ScreenImagePyramid();
+		final int[] argb = new int[16 * 16];
+		pyramid.setPlane(PLANE_A, 0, new ScreenBuffer(argb, 16, 16));
+		final Level a = pyramid.getLevel(1);
+		assertSame(a, pyramid.getCachedLevel(PLANE_A, 1));
+		assertNull(pyramid.getCachedLevel(PLANE_A, 2));
+
+		// levels of other planes are retained
+		pyramid.setPlane(PLANE_B, 0, new ScreenBuffer(argb, 16, 16));
+		assertNull(pyramid.getCachedLevel(PLANE_B, 1));
+		assertNotSame(a, pyramid.getLevel(1));
+		assertSame(a, pyramid.getCachedLevel(PLANE_A, 1));
+		assertNull(pyramid.getCachedLevel(PLANE_A, 0));
+
+		// projecting a plane anew, into another buffer, keeps its levels
+		pyramid.setPlane(PLANE_A, 0, new ScreenBuffer(argb.clone(), 16, 16));
+		assertSame(a, pyramid.getCachedLevel(PLANE_A, 1));
+		assertSame(a, pyramid.getLevel(1));
+		assertNotNull(pyramid.getCachedLevel(PLANE_B, 1));
+
+		// a new color table version discards the levels of all planes
+		pyramid.setPlane(PLANE_A, 1, new ScreenBuffer(argb, 16, 16));
+		assertNull(pyramid.getCachedLevel(PLANE_A, 1));
+		assertNull(pyramid.getCachedLevel(PLANE_B, 1));
+		assertNotSame(a, pyramid.getLevel(1));
+
+		pyramid.invalidateAll();
+		assertNull(pyramid.getCachedLevel(PLANE_A, 1));
+	}
+
+	@Test
+	public void testPutLevels() {
+		final ScreenImagePyramid pyramid = new ScreenImagePyramid();
+		final ScreenBuffer buffer = new ScreenBuffer(16, 16);
+		final List<Level> levels = ScreenImagePyramid.buildLevels(buffer, 2);
+		assertEquals(2, levels.size());
+		assertEquals(4, levels.get(1).getWidth());
+
+		// levels of an outdated version are dropped
+		pyramid.setPlane(PLANE_A, 1, buffer);
+		pyramid.putLevels(PLANE_B, 0, levels);
+		assertNull(pyramid.getCachedLevel(PLANE_B, 2));
+
+		pyramid.putLevels(PLANE_B, 1, levels);
+		assertSame(levels.get(1), pyramid.getCachedLevel(PLANE_B, 2));
+
+		// requests beyond the coarsest level are clamped
+		assertEquals(4, ScreenImagePyramid.buildLevels(buffer, 10).size());
+	}
+
+	@Test
+	public void testEviction() {
+		final ScreenImagePyramid pyramid = new ScreenImagePyramid();
+		// each downsampled plane holds an eighth of the retained pixel budget,
+		// the current plane included
+		final int size = 2048;
+		final int[] argb = new int[size * size];
+		final int planes = 10;
+		for (int p = 0; p < planes; p++) {
+			pyramid.setPlane(new long[] { p }, 0, new ScreenBuffer(argb, size,
+				size));
+			pyramid.getLevel(1);
+		}
+		assertNull(pyramid.getCachedLevel(new long[] { 0 }, 1));
+		assertNull(pyramid.getCachedLevel(new long[] { 1 }, 1));
+		for (int p = 2; p < planes; p++) {
+			assertNotNull(pyramid.getCachedLevel(new long[] { p }, 1));
+		}
+	}
+
+}
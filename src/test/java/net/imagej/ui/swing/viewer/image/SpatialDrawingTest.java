@@ -0,0 +1,136 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2009 - 2023 ImageJ developers.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+
+package net.imagej.ui.swing.viewer.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jhotdraw.draw.Figure;
+import org.jhotdraw.draw.RectangleFigure;
+import org.junit.Test;
+
+/**
+ * Tests {@link SpatialDrawing}.
+ */
+public class SpatialDrawingTest {
+
+	@Test
+	public void testFindFigure() {
+		final SpatialDrawing drawing = new SpatialDrawing();
+		final Figure back = new RectangleFigure(0, 0, 50, 50);
+		final Figure front = new RectangleFigure(25, 25, 50, 50);
+		drawing.add(back);
+		drawing.add(front);
+
+		final Point2D.Double overlap = new Point2D.Double(30, 30);
+		assertSame(front, drawing.findFigure(overlap));
+		assertSame(back, drawing.findFigure(new Point2D.Double(10, 10)));
+		assertNull(drawing.findFigure(new Point2D.Double(200, 200)));
+
+		drawing.bringToFront(back);
+		assertSame(back, drawing.findFigure(overlap));
+		drawing.sendToBack(back);
+		assertSame(front, drawing.findFigure(overlap));
+
+		front.setVisible(false);
+		assertSame(back, drawing.findFigure(overlap));
+	}
+
+	@Test
+	public void testSort() {
+		final SpatialDrawing drawing = new SpatialDrawing();
+		final Figure a = new RectangleFigure(0, 0, 10, 10);
+		final Figure b = new RectangleFigure(20, 0, 10, 10);
+		final Figure c = new RectangleFigure(40, 0, 10, 10);
+		drawing.add(a);
+		drawing.add(b);
+		drawing.add(c);
+		assertEquals(Arrays.asList(a, b, c), drawing.sort(Arrays.asList(c, a, b)));
+
+		// figures which are not children are left out
+		drawing.remove(b);
+		assertEquals(Arrays.asList(a, c), drawing.sort(Arrays.asList(c, b, a)));
+	}
+
+	@Test
+	public void testZOrder() {
+		final SpatialDrawing drawing = new SpatialDrawing();
+		final List<Figure> figures = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			final Figure f = new RectangleFigure(i, i, 10, 10);
+			figures.add(f);
+			drawing.add(f);
+		}
+		// insert repeatedly at the same place, until the numbers run out
+		for (int i = 0; i < 40; i++) {
+			final Figure f = new RectangleFigure(0, 0, 5, 5);
+			figures.add(1, f);
+			drawing.add(1, f);
+		}
+		assertOrder(figures, drawing);
+
+		drawing.bringToFront(figures.get(0));
+		figures.add(figures.remove(0));
+		drawing.sendToBack(figures.get(20));
+		figures.add(0, figures.remove(20));
+		drawing.remove(figures.remove(30));
+		assertOrder(figures, drawing);
+
+		final SpatialDrawing copy = drawing.clone();
+		assertEquals(figures.size(), copy.getChildCount());
+		for (int i = 0; i < copy.getChildCount(); i++) {
+			assertEquals(i, copy.indexOf(copy.getChild(i)));
+		}
+	}
+
+	// -- Helper methods --
+
+	private void assertOrder(final List<Figure> expected,
+		final SpatialDrawing drawing)
+	{
+		assertEquals(expected, drawing.getChildren());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(i, drawing.indexOf(expected.get(i)));
+		}
+		final List<Figure> reversed = new ArrayList<>(expected);
+		Collections.reverse(reversed);
+		assertEquals(expected, drawing.sort(reversed));
+		assertEquals(-1, drawing.indexOf(new RectangleFigure()));
+	}
+
+}